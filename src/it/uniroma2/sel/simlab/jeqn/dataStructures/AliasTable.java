@@ -0,0 +1,199 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.dataStructures;
+
+/** Implements the alias method (Walker, in the Vose formulation) for sampling an index
+ * out of a discrete distribution given by non negative weights. Each sample takes O(1),
+ * one array access and one comparison, from a single uniform number. The table is built
+ * in O(k); when weights change, only the changed weights and their total are updated, and
+ * the table is rebuilt once, at the first following sample, so that a batch of changes
+ * costs a single rebuild.
+ *
+ * @author Daniele Gianni
+ */
+public final class AliasTable {
+
+    // the weights of the indices
+    private double[] weights;
+
+    // sum of the weights
+    private double totalWeight;
+
+    // probability of keeping the sampled column, scaled to [0, 1]
+    private double[] probabilities;
+
+    // the alternative index of each column
+    private int[] aliases;
+
+    // whether the weights changed since the last build
+    private boolean changed;
+
+    // work stacks of the build
+    private int[] small;
+    private int[] large;
+
+    /**
+     * Creates a new instance of AliasTable
+     * @param weights The non negative weights, which are copied; at least one must be positive
+     */
+    public AliasTable(final double[] weights) {
+        int k = weights.length;
+        if (k == 0) {
+            throw new IllegalArgumentException("Empty alias table");
+        }
+
+        this.weights = new double[k];
+        probabilities = new double[k];
+        aliases = new int[k];
+        small = new int[k];
+        large = new int[k];
+
+        totalWeight = 0.0;
+        for (int i = 0; i < k; i++) {
+            checkWeight(weights[i]);
+            this.weights[i] = weights[i];
+            totalWeight += weights[i];
+        }
+
+        build();
+    }
+
+    /**
+     * Samples an index
+     * @param u A uniform number in [0, 1)
+     * @return The index, chosen with probability proportional to its weight
+     */
+    public int sample(final double u) {
+        if (changed) {
+            build();
+        }
+
+        int k = probabilities.length;
+        double x = u * k;
+        int column = (int) x;
+        if (column >= k) {
+            // u rounded up to 1
+            column = k - 1;
+        }
+
+        return ((x - column) < probabilities[column]) ? column : aliases[column];
+    }
+
+    /**
+     * Changes the weight of an index. The table is rebuilt at the next sample.
+     * @param i The index
+     * @param w The new non negative weight
+     */
+    public void setWeight(final int i, final double w) {
+        checkWeight(w);
+        if (w != weights[i]) {
+            totalWeight += w - weights[i];
+            weights[i] = w;
+            changed = true;
+        }
+    }
+
+    /**
+     * Gets the weight of an index
+     * @param i The index
+     * @return The weight
+     */
+    public double getWeight(final int i) {
+        return weights[i];
+    }
+
+    /**
+     * Gets the probability of sampling an index
+     * @param i The index
+     * @return The weight of the index divided by the sum of the weights
+     */
+    public double getProbability(final int i) {
+        return weights[i] / totalWeight;
+    }
+
+    /**
+     * Gets the number of indices
+     * @return The number of indices
+     */
+    public int size() {
+        return weights.length;
+    }
+
+    private static void checkWeight(final double w) {
+        if (!(w >= 0.0) || Double.isInfinite(w)) {
+            throw new IllegalArgumentException("Invalid alias table weight: " + w);
+        }
+    }
+
+    /*
+     * Builds the table with the Vose method
+     */
+    private void build() {
+        int k = weights.length;
+
+        // the total is recomputed, as the incremental updates accumulate rounding errors
+        double total = 0.0;
+        for (int i = 0; i < k; i++) {
+            total += weights[i];
+        }
+        if (!(total > 0.0)) {
+            throw new IllegalStateException("Alias table with no positive weight");
+        }
+        totalWeight = total;
+
+        int smallSize = 0;
+        int largeSize = 0;
+        for (int i = 0; i < k; i++) {
+            probabilities[i] = weights[i] * k / total;
+            aliases[i] = i;
+            if (probabilities[i] < 1.0) {
+                small[smallSize++] = i;
+            } else {
+                large[largeSize++] = i;
+            }
+        }
+
+        while ((smallSize > 0) && (largeSize > 0)) {
+            int s = small[--smallSize];
+            int l = large[--largeSize];
+
+            aliases[s] = l;
+            probabilities[l] = (probabilities[l] + probabilities[s]) - 1.0;
+            if (probabilities[l] < 1.0) {
+                small[smallSize++] = l;
+            } else {
+                large[largeSize++] = l;
+            }
+        }
+
+        // the columns left are full, up to rounding errors
+        while (largeSize > 0) {
+            probabilities[large[--largeSize]] = 1.0;
+        }
+        while (smallSize > 0) {
+            probabilities[small[--smallSize]] = 1.0;
+        }
+
+        changed = false;
+    }
+}
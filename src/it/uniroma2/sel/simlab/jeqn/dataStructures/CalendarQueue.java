@@ -0,0 +1,298 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.dataStructures;
+
+/** Implements a calendar queue (R. Brown, 1988), that is a priority queue of timestamped
+ * items with O(1) amortised insertion and removal for the timestamp distributions
+ * typical of the future event lists. Items with the same timestamp are removed in
+ * insertion order.
+ * <p>
+ * The timestamps are distributed over an array of buckets, each one covering an
+ * interval of {@code width} time units, which is cyclically reused ("year" after
+ * "year"). The number of buckets is doubled or halved as the queue grows or shrinks,
+ * and the bucket width is then re-estimated from the separation of the earliest items.
+ *
+ * @author Daniele Gianni
+ */
+public final class CalendarQueue<T> {
+
+    // minimum number of buckets
+    private static final int MIN_BUCKETS = 2;
+
+    // number of items sampled to estimate the bucket width
+    private static final int WIDTH_SAMPLE_SIZE = 25;
+
+    /*
+     * queue entry, chained within the bucket in (time, sequence) order
+     */
+    private static final class Entry<T> {
+        private double time;
+        private long sequence;
+        private T item;
+        private Entry<T> next;
+    }
+
+    // buckets of the calendar
+    private Entry<T>[] buckets;
+
+    // time interval covered by each bucket
+    private double width;
+
+    // number of items in the queue
+    private int size;
+
+    // number of items inserted since the creation, used to break ties
+    private long sequences;
+
+    // absolute slot (time / width) from which the search for the next item starts
+    private long currentSlot;
+
+    /** Creates a new, empty, instance of CalendarQueue */
+    public CalendarQueue() {
+        this(1.0);
+    }
+
+    /**
+     * Creates a new, empty, instance of CalendarQueue
+     * @param initialWidth The initial bucket width, a guess of the mean separation of the timestamps
+     */
+    public CalendarQueue(final double initialWidth) {
+        if (!(initialWidth > 0)) {
+            throw new IllegalArgumentException("The bucket width must be positive");
+        }
+        buckets = newBuckets(MIN_BUCKETS);
+        width = initialWidth;
+        size = 0;
+        sequences = 0;
+        currentSlot = 0;
+    }
+
+    /**
+     * Inserts an item
+     * @param time The item timestamp
+     * @param item The item
+     */
+    public void add(final double time, final T item) {
+        Entry<T> e = new Entry<T>();
+        e.time = time;
+        e.sequence = sequences++;
+        e.item = item;
+
+        insert(e);
+        size++;
+
+        if (size > (buckets.length << 1)) {
+            resize(buckets.length << 1);
+        }
+    }
+
+    /**
+     * Gets, without removing it, the item with the lowest timestamp
+     * @return The item, null if the queue is empty
+     */
+    public T peek() {
+        if (size == 0) {
+            return null;
+        }
+        return buckets[seekFirst()].item;
+    }
+
+    /**
+     * Gets the lowest timestamp in the queue
+     * @return The lowest timestamp, {@code Double.POSITIVE_INFINITY} if the queue is empty
+     */
+    public double peekTime() {
+        if (size == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return buckets[seekFirst()].time;
+    }
+
+    /**
+     * Removes the item with the lowest timestamp
+     * @return The removed item, null if the queue is empty
+     */
+    public T poll() {
+        if (size == 0) {
+            return null;
+        }
+
+        int i = seekFirst();
+        Entry<T> e = buckets[i];
+        buckets[i] = e.next;
+        size--;
+
+        if ((size < (buckets.length >> 1)) && (buckets.length > MIN_BUCKETS)) {
+            resize(buckets.length >> 1);
+        }
+        return e.item;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the items
+     */
+    public void clear() {
+        buckets = newBuckets(MIN_BUCKETS);
+        size = 0;
+    }
+
+    /*
+     * finds the bucket that holds the item with the lowest timestamp, updating the
+     * current slot. The queue must not be empty.
+     */
+    private int seekFirst() {
+        int n = buckets.length;
+        long slot = currentSlot;
+        int i = bucketOf(slot);
+
+        // scan one year of buckets from the current slot
+        for (int k = 0; k < n; k++) {
+            Entry<T> e = buckets[i];
+            if ((e != null) && (slotOf(e.time) <= slot)) {
+                currentSlot = slot;
+                return i;
+            }
+            slot++;
+            if (++i == n) {
+                i = 0;
+            }
+        }
+
+        // no item in the next year, direct search of the lowest bucket head
+        int first = -1;
+        for (int j = 0; j < n; j++) {
+            if ((buckets[j] != null) && ((first < 0) || precedes(buckets[j], buckets[first]))) {
+                first = j;
+            }
+        }
+        currentSlot = slotOf(buckets[first].time);
+        return first;
+    }
+
+    private void insert(final Entry<T> e) {
+        long slot = slotOf(e.time);
+        int i = bucketOf(slot);
+
+        Entry<T> previous = null;
+        Entry<T> current = buckets[i];
+        while ((current != null) && !precedes(e, current)) {
+            previous = current;
+            current = current.next;
+        }
+        e.next = current;
+        if (previous == null) {
+            buckets[i] = e;
+        } else {
+            previous.next = e;
+        }
+
+        if (slot < currentSlot) {
+            currentSlot = slot;
+        }
+    }
+
+    /*
+     * rebuilds the calendar with the given number of buckets and a re-estimated width
+     */
+    private void resize(final int n) {
+        double newWidth = estimateWidth();
+
+        Entry<T> all = null;
+        for (int i = 0; i < buckets.length; i++) {
+            Entry<T> e = buckets[i];
+            while (e != null) {
+                Entry<T> next = e.next;
+                e.next = all;
+                all = e;
+                e = next;
+            }
+        }
+
+        width = newWidth;
+        buckets = newBuckets(n);
+
+        // insert() moves the current slot back to the earliest item
+        currentSlot = (all == null) ? 0 : Long.MAX_VALUE;
+        while (all != null) {
+            Entry<T> next = all.next;
+            insert(all);
+            all = next;
+        }
+    }
+
+    /*
+     * estimates the bucket width as three times the mean separation of the earliest
+     * items, as suggested by Brown
+     */
+    private double estimateWidth() {
+        int samples = Math.min(size, WIDTH_SAMPLE_SIZE);
+        if (samples < 2) {
+            return width;
+        }
+
+        // selects the earliest timestamps with a partial selection sort over the bucket heads
+        double[] times = new double[samples];
+        Entry<T>[] cursors = newBuckets(buckets.length);
+        System.arraycopy(buckets, 0, cursors, 0, buckets.length);
+
+        for (int s = 0; s < samples; s++) {
+            int first = -1;
+            for (int j = 0; j < cursors.length; j++) {
+                if ((cursors[j] != null) && ((first < 0) || (cursors[j].time < cursors[first].time))) {
+                    first = j;
+                }
+            }
+            times[s] = cursors[first].time;
+            cursors[first] = cursors[first].next;
+        }
+
+        double separation = (times[samples - 1] - times[0]) / (samples - 1);
+        return (separation > 0) ? 3.0 * separation : width;
+    }
+
+    private int bucketOf(final long slot) {
+        int i = (int) (slot % buckets.length);
+        return (i < 0) ? i + buckets.length : i;
+    }
+
+    private long slotOf(final double time) {
+        return (long) Math.floor(time / width);
+    }
+
+    private static <T> boolean precedes(final Entry<T> a, final Entry<T> b) {
+        return (a.time < b.time) || ((a.time == b.time) && (a.sequence < b.sequence));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Entry<T>[] newBuckets(final int n) {
+        return (Entry<T>[]) new Entry[n];
+    }
+}
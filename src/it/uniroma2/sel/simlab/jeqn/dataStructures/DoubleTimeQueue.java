@@ -0,0 +1,201 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.dataStructures;
+
+import java.util.NoSuchElementException;
+
+/** Implements a priority queue of {@code double} times, specialised for the times that
+ * are mostly inserted in non decreasing order, such as the end times of constant
+ * delays. While the inserted times are ordered they are kept in a circular array,
+ * with O(1) insertion and removal. The first out of order insertion turns the array
+ * into a binary min-heap, which is used from then on with O(log n) operations; a
+ * sorted array being already a valid heap, the conversion only realigns the items.
+ *
+ * @author Daniele Gianni
+ */
+public final class DoubleTimeQueue {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // the times, as a ring from head while ordered, as a heap from 0 otherwise
+    private double[] times;
+
+    // index of the first time in the ring
+    private int head;
+
+    // number of times in the queue
+    private int size;
+
+    // whether the times are still kept as an ordered ring
+    private boolean ordered;
+
+    /** Creates a new, empty, instance of DoubleTimeQueue */
+    public DoubleTimeQueue() {
+        times = new double[DEFAULT_CAPACITY];
+        clear();
+    }
+
+    /**
+     * Inserts a time in the queue
+     * @param t The time
+     */
+    public void add(final double t) {
+        if (size == times.length) {
+            grow();
+        }
+
+        if (ordered) {
+            int mask = times.length - 1;
+
+            if ((size == 0) || (t >= times[(head + size - 1) & mask])) {
+                times[(head + size) & mask] = t;
+                size++;
+                return;
+            }
+            toHeap();
+        }
+
+        siftUp(size++, t);
+    }
+
+    /**
+     * Gets the earliest time, without removing it
+     * @return The earliest time
+     * @throws NoSuchElementException If the queue is empty
+     */
+    public double peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return ordered ? times[head] : times[0];
+    }
+
+    /**
+     * Removes the earliest time
+     * @return The earliest time
+     * @throws NoSuchElementException If the queue is empty
+     */
+    public double poll() {
+        double t = peek();
+
+        size--;
+        if (ordered) {
+            head = (head + 1) & (times.length - 1);
+        } else if (size > 0) {
+            siftDown(times[size]);
+        }
+
+        return t;
+    }
+
+    /**
+     * Says whether the queue is empty
+     * @return {@code true} if the queue contains no time
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Says whether the times are still kept as an ordered ring
+     * @return {@code true} if no time has been inserted out of order since the last clear
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Gets the number of times in the queue
+     * @return The number of times
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the times; the queue goes back to the ordered ring
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+        ordered = true;
+    }
+
+    // doubles the capacity, moving the ring to the start of the new array
+    private void grow() {
+        double[] t = new double[times.length << 1];
+
+        if (ordered) {
+            int firstPart = Math.min(size, times.length - head);
+            System.arraycopy(times, head, t, 0, firstPart);
+            System.arraycopy(times, 0, t, firstPart, size - firstPart);
+            head = 0;
+        } else {
+            System.arraycopy(times, 0, t, 0, size);
+        }
+        times = t;
+    }
+
+    // moves the ordered ring to the start of the array, where it is a valid heap
+    private void toHeap() {
+        if (head != 0) {
+            double[] t = new double[times.length];
+            int firstPart = Math.min(size, times.length - head);
+            System.arraycopy(times, head, t, 0, firstPart);
+            System.arraycopy(times, 0, t, firstPart, size - firstPart);
+            times = t;
+            head = 0;
+        }
+        ordered = false;
+    }
+
+    private void siftUp(int i, final double t) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (times[parent] <= t) {
+                break;
+            }
+            times[i] = times[parent];
+            i = parent;
+        }
+        times[i] = t;
+    }
+
+    private void siftDown(final double t) {
+        int i = 0;
+        int half = size >>> 1;
+
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if ((child + 1 < size) && (times[child + 1] < times[child])) {
+                child++;
+            }
+            if (t <= times[child]) {
+                break;
+            }
+            times[i] = times[child];
+            i = child;
+        }
+        times[i] = t;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.dataStructures;
+
+import java.util.List;
+
+/** Implements a hashed timing wheel, that is a circular array of slots each holding the
+ * timeouts that expire within the same tick. A timeout is scheduled and cancelled in
+ * O(1), since it is linked into, and unlinked from, a doubly linked list; the expired
+ * timeouts are collected by advancing the wheel to the current time, which costs one
+ * visit per elapsed tick, with at most one revolution of the wheel. Timeouts farther
+ * than one revolution share the slots with the nearer ones and are left in place until
+ * their own tick comes.
+ *
+ * @author Daniele Gianni
+ */
+public final class TimingWheel<E> {
+
+    /**
+     * A timeout scheduled on the wheel, which can be used to cancel it
+     */
+    public static final class Timeout<E> {
+
+        // the element the timeout refers to
+        private final E element;
+
+        // the expiration time
+        private final double deadline;
+
+        // the tick at the end of which the timeout expires
+        private long tick;
+
+        // the neighbours in the slot list
+        private Timeout<E> previous;
+        private Timeout<E> next;
+
+        // whether the timeout is still on the wheel
+        private boolean scheduled;
+
+        private Timeout(final E element, final double deadline) {
+            this.element = element;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Accessor method for property
+         * @return The element the timeout refers to
+         */
+        public E getElement() {
+            return element;
+        }
+
+        /**
+         * Accessor method for property
+         * @return The expiration time
+         */
+        public double getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * Says whether the timeout is still on the wheel, that is neither expired nor cancelled
+         * @return {@code true} if the timeout is still on the wheel
+         */
+        public boolean isScheduled() {
+            return scheduled;
+        }
+    }
+
+    // the heads of the slot lists
+    private Timeout<E>[] slots;
+
+    // mask to map a tick onto its slot
+    private int mask;
+
+    // the duration of a tick
+    private double tickDuration;
+
+    // the last tick the wheel has been advanced to
+    private long currentTick;
+
+    // number of timeouts on the wheel
+    private int size;
+
+    /**
+     * Creates a new instance of TimingWheel
+     * @param tickDuration The duration of a tick, that is the resolution of the wheel
+     * @param ticksPerWheel The number of slots, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(final double tickDuration, final int ticksPerWheel) {
+        if (!(tickDuration > 0.0) || (ticksPerWheel < 1)) {
+            throw new IllegalArgumentException("Invalid timing wheel: tick duration " + tickDuration + ", ticks per wheel " + ticksPerWheel);
+        }
+
+        int n = 1;
+        while (n < ticksPerWheel) {
+            n <<= 1;
+        }
+
+        slots = new Timeout[n];
+        mask = n - 1;
+
+        this.tickDuration = tickDuration;
+
+        currentTick = 0;
+        size = 0;
+    }
+
+    /**
+     * Schedules a timeout. A deadline already passed expires at the next advance.
+     * @param e The element the timeout refers to
+     * @param deadline The expiration time
+     * @return The timeout, to be used for cancelling it
+     */
+    public Timeout<E> schedule(final E e, final double deadline) {
+        Timeout<E> t = new Timeout<E>(e, deadline);
+
+        t.tick = Math.max((long) Math.ceil(deadline / tickDuration), currentTick);
+        link(t);
+
+        return t;
+    }
+
+    /**
+     * Cancels a timeout, if still on the wheel
+     * @param t The timeout to cancel
+     * @return {@code true} if the timeout was on the wheel
+     */
+    public boolean cancel(final Timeout<E> t) {
+        if ((t == null) || !t.scheduled) {
+            return false;
+        }
+        unlink(t);
+
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the given time and collects the expired timeouts
+     * @param now The current time
+     * @param expired The list where the elements of the expired timeouts are added
+     * @return The number of expired timeouts
+     */
+    public int advanceTo(final double now, final List<E> expired) {
+        long nowTick = (long) Math.floor(now / tickDuration);
+        if ((nowTick + 1) * tickDuration <= now) {
+            // the division rounded a tick boundary down
+            nowTick++;
+        }
+        nowTick = Math.max(nowTick, currentTick);
+
+        int count = 0;
+
+        if (size > 0) {
+            // beyond one revolution each slot is visited once
+            long last = Math.min(nowTick, currentTick + mask);
+
+            for (long tick = currentTick; tick <= last; tick++) {
+                Timeout<E> t = slots[(int) (tick & mask)];
+
+                while (t != null) {
+                    Timeout<E> next = t.next;
+                    if (t.tick <= nowTick) {
+                        unlink(t);
+                        expired.add(t.element);
+                        count++;
+                    }
+                    t = next;
+                }
+            }
+        }
+        currentTick = nowTick;
+
+        return count;
+    }
+
+    /**
+     * Gets the time the wheel has to be advanced to for the next timeout to expire. The
+     * search is limited to one revolution of the wheel; when no timeout expires within it
+     * the end of the revolution is returned.
+     * @return The next expiration time, {@code Double.POSITIVE_INFINITY} if the wheel is empty
+     */
+    public double nextExpirationTime() {
+        if (size == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        long last = currentTick + mask;
+        for (long tick = currentTick; tick <= last; tick++) {
+            for (Timeout<E> t = slots[(int) (tick & mask)]; t != null; t = t.next) {
+                if (t.tick <= tick) {
+                    return tick * tickDuration;
+                }
+            }
+        }
+
+        return last * tickDuration;
+    }
+
+    /**
+     * Checks whether the wheel holds no timeout
+     * @return {@code true} if the wheel is empty
+     */
+    public boolean isEmpty() {
+        return (size == 0);
+    }
+
+    /**
+     * Gets the number of timeouts on the wheel
+     * @return The number of timeouts
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Accessor method for property
+     * @return The duration of a tick
+     */
+    public double getTickDuration() {
+        return tickDuration;
+    }
+
+    private void link(final Timeout<E> t) {
+        int slot = (int) (t.tick & mask);
+
+        t.previous = null;
+        t.next = slots[slot];
+        if (t.next != null) {
+            t.next.previous = t;
+        }
+        slots[slot] = t;
+
+        t.scheduled = true;
+        size++;
+    }
+
+    private void unlink(final Timeout<E> t) {
+        if (t.previous != null) {
+            t.previous.next = t.next;
+        } else {
+            slots[(int) (t.tick & mask)] = t.next;
+        }
+        if (t.next != null) {
+            t.next.previous = t.previous;
+        }
+        t.previous = null;
+        t.next = null;
+
+        t.scheduled = false;
+        size--;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.general;
+
+/** Identifies the jEQN objects whose state can be saved and later restored, as
+ * required by optimistic synchronisation schemes that roll back the execution to a
+ * previous simulation time. The saved state is opaque to the caller and must not be
+ * affected by the subsequent evolution of the object.
+ * <p>
+ * Policies need not implement this interface when their whole state is kept in the
+ * {@code state} property of {@code StatePolicy} and is immutable, as for instance an
+ * {@code Integer}: for them {@code getState} and {@code setState} already save and
+ * restore the state.
+ *
+ * @author Daniele Gianni
+ */
+public interface Checkpointable {
+
+    /**
+     * Saves the current state
+     * @return An object representing the current state
+     */
+    public Object saveState();
+
+    /**
+     * Restores a previously saved state
+     * @param state An object returned by {@code saveState} on this same object
+     */
+    public void restoreState(Object state);
+}
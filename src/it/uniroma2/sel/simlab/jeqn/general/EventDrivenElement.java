@@ -0,0 +1,63 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.general;
+
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNException;
+import it.uniroma2.sel.simlab.simarch.data.Event;
+import it.uniroma2.sel.simlab.simarch.data.Time;
+
+/** Defines the callback interface of the jEQN elements that can be executed in
+ * event-driven mode. An element implementing this interface does not need its own
+ * execution context: a scheduler can deliver the incoming events by invoking
+ * {@code onEvent} and can fire the completions that the element has scheduled for
+ * itself in place of {@code hold()}.
+ *
+ * @author Daniele Gianni
+ */
+public interface EventDrivenElement {
+
+    /**
+     * Handles an event received by the element
+     * @param e The received event
+     * @throws JEQNException Raised when the event cannot be handled
+     */
+    public void onEvent(Event e) throws JEQNException;
+
+    /**
+     * Checks whether the element has scheduled completions not yet fired
+     * @return true if at least one completion is pending
+     */
+    public boolean hasPendingCompletions();
+
+    /**
+     * Gets the time of the earliest pending completion
+     * @return The time of the earliest completion, null if no completion is pending
+     */
+    public Time getNextCompletionTime();
+
+    /**
+     * Fires the earliest pending completion
+     * @throws JEQNException Raised when the completion cannot be handled
+     */
+    public void fireNextCompletion() throws JEQNException;
+}
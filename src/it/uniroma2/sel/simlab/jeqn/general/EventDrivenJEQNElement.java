@@ -0,0 +1,221 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.general;
+
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNException;
+import it.uniroma2.sel.simlab.simarch.data.Event;
+import it.uniroma2.sel.simlab.simarch.data.Time;
+import it.uniroma2.sel.simlab.simarch.exceptions.InvalidNameException;
+import it.uniroma2.sel.simlab.simarch.factories.Layer3ToLayer2Factory;
+
+/** Defines the base class for the jEQN elements written in event-driven style.
+ * Subclasses implement {@code onEvent} for the incoming events and {@code onCompletion}
+ * for the completions they schedule through {@code scheduleCompletion}, which replaces
+ * the blocking {@code hold()} of the process-style elements.
+ * <p>
+ * When the underlying layer invokes the callbacks directly, no execution context is
+ * kept for the element. When the element is run as a process, {@code body()} emulates
+ * the scheduler by waiting for the next incoming event or the next completion,
+ * whichever comes first, so event-driven and process-style elements can be mixed
+ * within the same model.
+ *
+ * @author Daniele Gianni
+ */
+public abstract class EventDrivenJEQNElement extends JEQNElement implements EventDrivenElement {
+
+    // initial capacity of the completion heap
+    private static final int INITIAL_COMPLETIONS = 16;
+
+    /*
+     * pending completions, kept as a binary min-heap on the completion time.
+     * Completions with the same time are fired in scheduling order.
+     */
+    private double[] completionTimes;
+    private long[] completionSequences;
+    private Object[] completionData;
+    private int completions;
+
+    // number of completions scheduled since the start, used to break ties
+    private long scheduledCompletions;
+
+    /** Creates a new EventDrivenJEQNElement.
+     *
+     * @param	name	Element name. The name is used to identify entities within the simulation model.
+     * @param	timeFactory	Instances the jEQN time object that contains the value for the simulation time.
+     * @param	factory	According to the Factory pattern, factory is used to instantiates the implementation of Layer3ToLayer2 interface, which provides level 3 services to level 2.
+     * @throws	InvalidNameException	An InvalidNameException is raised when an issue concerning the element name occurs.
+     */
+    public EventDrivenJEQNElement(final JEQNName name, final JEQNTimeFactory timeFactory, final Layer3ToLayer2Factory factory) throws InvalidNameException {
+        super(name, timeFactory, factory);
+
+        initCompletions();
+    }
+
+    private void initCompletions() {
+        completionTimes = new double[INITIAL_COMPLETIONS];
+        completionSequences = new long[INITIAL_COMPLETIONS];
+        completionData = new Object[INITIAL_COMPLETIONS];
+        completions = 0;
+        scheduledCompletions = 0;
+    }
+
+    /**
+     * Contains the simulation logic of the element when run as a process. The incoming
+     * events and the scheduled completions are dispatched to the callbacks in time order.
+     */
+    public final void body() throws JEQNException {
+        while (true) {
+            if (completions == 0) {
+                onEvent(nextEvent());
+            } else {
+                unsetEventReceived();
+
+                if (holdUnlessIncomingEvent(timeFactory.makeFrom(Math.max(0.0, completionTimes[0] - getClock().getValue())))) {
+                    onEvent(getReceivedEvent());
+                } else {
+                    fireNextCompletion();
+                }
+            }
+        }
+    }
+
+    /**
+     * Handles an event received by the element
+     * @param e The received event
+     * @throws JEQNException Raised when the event cannot be handled
+     */
+    public abstract void onEvent(Event e) throws JEQNException;
+
+    /**
+     * Handles a completion previously scheduled by the element
+     * @param data The object passed when the completion was scheduled
+     * @throws JEQNException Raised when the completion cannot be handled
+     */
+    protected abstract void onCompletion(Object data) throws JEQNException;
+
+    /**
+     * Schedules a completion for this element, in place of holding the execution
+     * @param delay Time from now at which the completion has to be fired
+     * @param data Object passed back to {@code onCompletion}
+     */
+    protected final void scheduleCompletion(final Time delay, final Object data) {
+        if (completions == completionTimes.length) {
+            growCompletions();
+        }
+
+        int i = completions++;
+        double t = getClock().getValue() + delay.getValue();
+        long s = scheduledCompletions++;
+
+        // sift up
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!precedes(t, s, completionTimes[parent], completionSequences[parent])) {
+                break;
+            }
+            moveCompletion(parent, i);
+            i = parent;
+        }
+        completionTimes[i] = t;
+        completionSequences[i] = s;
+        completionData[i] = data;
+    }
+
+    public final boolean hasPendingCompletions() {
+        return completions > 0;
+    }
+
+    public final Time getNextCompletionTime() {
+        if (completions == 0) {
+            return null;
+        }
+        return timeFactory.makeFrom(completionTimes[0]);
+    }
+
+    public final void fireNextCompletion() throws JEQNException {
+        Object data = completionData[0];
+
+        completions--;
+        if (completions > 0) {
+            siftDown(completionTimes[completions], completionSequences[completions], completionData[completions]);
+        }
+        completionData[completions] = null;
+
+        onCompletion(data);
+    }
+
+    /**
+     * Gets the number of completions not yet fired
+     * @return The number of pending completions
+     */
+    protected final int getPendingCompletions() {
+        return completions;
+    }
+
+    private void siftDown(final double t, final long s, final Object d) {
+        int i = 0;
+        int half = completions >>> 1;
+
+        while (i < half) {
+            int child = (i << 1) + 1;
+            int right = child + 1;
+            if (right < completions && precedes(completionTimes[right], completionSequences[right], completionTimes[child], completionSequences[child])) {
+                child = right;
+            }
+            if (!precedes(completionTimes[child], completionSequences[child], t, s)) {
+                break;
+            }
+            moveCompletion(child, i);
+            i = child;
+        }
+        completionTimes[i] = t;
+        completionSequences[i] = s;
+        completionData[i] = d;
+    }
+
+    private static boolean precedes(final double t1, final long s1, final double t2, final long s2) {
+        return (t1 < t2) || ((t1 == t2) && (s1 < s2));
+    }
+
+    private void moveCompletion(final int from, final int to) {
+        completionTimes[to] = completionTimes[from];
+        completionSequences[to] = completionSequences[from];
+        completionData[to] = completionData[from];
+    }
+
+    private void growCompletions() {
+        int capacity = completionTimes.length << 1;
+
+        double[] t = new double[capacity];
+        long[] s = new long[capacity];
+        Object[] d = new Object[capacity];
+
+        System.arraycopy(completionTimes, 0, t, 0, completions);
+        System.arraycopy(completionSequences, 0, s, 0, completions);
+        System.arraycopy(completionData, 0, d, 0, completions);
+
+        completionTimes = t;
+        completionSequences = s;
+        completionData = d;
+    }
+}
@@ -27,6 +27,7 @@ import it.uniroma2.sel.simlab.jeqn.users.User;
 import it.uniroma2.sel.simlab.simarch.exceptions.InvalidNameException;
 import it.uniroma2.sel.simlab.simarch.factories.Layer3ToLayer2Factory;
 import it.uniroma2.sel.simlab.simcomp.basic.entities.BasicComponentLevelEntity;
+import it.uniroma2.sel.simlab.simarch.data.Time;
 
 /** Defines the basic jEQN element by extending the BasicCOmponentLevelEntity (simcomps)
  * and by introducing the factory for jEQN time.
@@ -54,4 +55,25 @@ public abstract class JEQNElement extends BasicComponentLevelEntity<User, Events
     protected void setTimeFactory(final JEQNTimeFactory f) {
         timeFactory = f;
     }
+
+    /**
+     * Gets the lookahead of the element, that is the minimum delay between the time an
+     * event is received and the time of any event the element sends as a consequence.
+     * Parallel layer 2 implementations can use this value to synchronise partitions
+     * conservatively. The default value is zero, that is no lookahead is assumed.
+     * @return The lookahead of the element
+     */
+    public Time getLookahead() {
+        return timeFactory.makeFrom(Time.ZERO);
+    }
+
+    /**
+     * Gets the lesser of two times
+     * @param a The first time
+     * @param b The second time
+     * @return The lesser time
+     */
+    protected static Time min(final Time a, final Time b) {
+        return (a.getValue() <= b.getValue()) ? a : b;
+    }
 }
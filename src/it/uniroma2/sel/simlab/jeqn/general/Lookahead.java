@@ -0,0 +1,75 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.general;
+
+import java.util.Collection;
+
+/** Provides the computations on element lookaheads needed by conservative
+ * synchronisation schemes. The lookahead of a partition is the minimum lookahead of its
+ * elements: an event executed at time t within the partition cannot cause events on the
+ * other partitions before t plus that value. With a barrier-window scheme, all the
+ * partitions can therefore safely execute the events in [t, t + lookahead), where t is
+ * the minimum time of the next events over all the partitions.
+ *
+ * @author Daniele Gianni
+ */
+public final class Lookahead {
+
+    private Lookahead() {
+    }
+
+    /**
+     * Gets the minimum lookahead of a set of elements
+     * @param elements The elements, for instance the ones of a partition
+     * @return The minimum lookahead, {@code Double.POSITIVE_INFINITY} for an empty set
+     */
+    public static double minimumOf(final Collection<? extends JEQNElement> elements) {
+        double min = Double.POSITIVE_INFINITY;
+
+        for (JEQNElement e : elements) {
+            double l = e.getLookahead().getValue();
+            if (l < min) {
+                min = l;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Gets the end of the window that can be safely executed by all the partitions
+     * @param nextEventTime The minimum time of the next events over all the partitions
+     * @param partitions The partitions of the model
+     * @return The end (excluded) of the safe window
+     */
+    public static double windowEnd(final double nextEventTime, final Collection<? extends Collection<? extends JEQNElement>> partitions) {
+        double min = Double.POSITIVE_INFINITY;
+
+        for (Collection<? extends JEQNElement> p : partitions) {
+            double l = minimumOf(p);
+            if (l < min) {
+                min = l;
+            }
+        }
+        return nextEventTime + min;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.policies;
+
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
+
+/** Adapts a generic policy making {@code Boolean} decisions to the {@code BooleanPolicy} interface, by
+ * unboxing each decision. Policies already implementing {@code BooleanPolicy} are used directly, and masks
+ * are compiled by the {@code PolicyCompiler}, which calls the primitive decision of the masked policies.
+ *
+ * @author Daniele Gianni
+ */
+public final class BooleanPolicyAdapter<E> implements BooleanPolicy<E> {
+
+    // the adapted policy
+    private final ExplicitInputPolicy<E, ? extends Boolean> policy;
+
+    /**
+     * Creates a new instance of BooleanPolicyAdapter
+     * @param p The policy to adapt
+     */
+    public BooleanPolicyAdapter(final ExplicitInputPolicy<E, ? extends Boolean> p) {
+        policy = p;
+    }
+
+    /**
+     * Gets a {@code BooleanPolicy} view of the given policy
+     * @param p The policy
+     * @return The policy itself, if it implements {@code BooleanPolicy}, the compiled policy if it is a mask, so that the primitive decision of the
+     * masked policies is called directly, otherwise an adapter; {@code null} if the policy is {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> BooleanPolicy<E> adapt(final ExplicitInputPolicy<E, ? extends Boolean> p) {
+        if (p == null) {
+            return null;
+        }
+        if (p instanceof BooleanPolicy) {
+            return (BooleanPolicy<E>) p;
+        }
+        if (p instanceof MaskBasePolicy) {
+            return PolicyCompiler.compile((MaskBasePolicy<?, E, ?, Boolean>) p);
+        }
+        return new BooleanPolicyAdapter<E>(p);
+    }
+
+    public boolean getBooleanDecisionFor(final E e) {
+        return policy.getDecisionFor(e).booleanValue();
+    }
+
+    /**
+     * Accessor method for property
+     * @return The adapted policy
+     */
+    public ExplicitInputPolicy<E, ? extends Boolean> getPolicy() {
+        return policy;
+    }
+}
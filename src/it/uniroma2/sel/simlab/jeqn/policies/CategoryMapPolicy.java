@@ -0,0 +1,96 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.policies;
+
+import it.uniroma2.sel.simlab.jeqn.users.Category;
+import it.uniroma2.sel.simlab.jeqn.users.CategoryArray;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Specializes the mapping policy for keys that are user categories. The mapping is mirrored
+ * in an array indexed by the category ordinal, so that the decision is an array access
+ * instead of a hash lookup. Unlike the generic mapping policy, the map given to the
+ * constructor or to {@code setImplicitInput} is copied, hence its later changes are not seen
+ * by the policy: mappings have to be added by means of {@code addMapping}, and the map
+ * returned by {@code getImplicitInput} cannot be modified. A decision for a category with
+ * no mapping throws an {@code IllegalArgumentException} instead of returning {@code null}.
+ *
+ * @author Daniele Gianni
+ */
+public class CategoryMapPolicy<D> extends MapImplicitAndExplicitInputDependentPolicy<Category, D> {
+
+    // the decisions, by category ordinal; not initialized here, as it is set by the super constructor
+    private CategoryArray<D> decisions;
+
+    /** Creates a new instance of CategoryMapPolicy */
+    public CategoryMapPolicy() {
+        super();
+    }
+
+    /**
+     * Creates a new instance of CategoryMapPolicy
+     * @param m The mapping between categories and decisions
+     */
+    public CategoryMapPolicy(final Map<Category, D> m) {
+        super(m);
+    }
+
+    public void addMapping(final Category key, final D value) {
+        super.getImplicitInput().put(key, value);
+
+        decisions.put(key, value);
+    }
+
+    public D getDecisionFor(final Category c) {
+        D d = decisions.get(c);
+
+        if (d == null) {
+            throw new IllegalArgumentException("No decision mapped to " + c);
+        }
+        return d;
+    }
+
+    /**
+     * Gets the mapping between categories and decisions
+     * @return A read-only view of the mapping
+     */
+    public Map<Category, D> getImplicitInput() {
+        return Collections.unmodifiableMap(super.getImplicitInput());
+    }
+
+    /**
+     * Sets the mapping between categories and decisions, which is copied
+     * @param m The mapping between categories and decisions
+     */
+    public void setImplicitInput(final Map<Category, D> m) {
+        Map<Category, D> copy = (m == null) ? new HashMap<Category, D>() : new HashMap<Category, D>(m);
+        super.setImplicitInput(copy);
+
+        decisions = new CategoryArray<D>();
+        for (Map.Entry<Category, D> e : copy.entrySet()) {
+            decisions.put(e.getKey(), e.getValue());
+        }
+    }
+}
@@ -46,6 +46,22 @@ public class CombinedPolicy<E, D1, D2> extends MaskBasePolicy<Void, E, Void, D2>
         return external.getDecisionFor(internal.getDecisionFor(e));
     }
 
+    /**
+     * Accessor method for property
+     * @return The policy applied to the decision of the internal policy
+     */
+    public MaskBasePolicy<?, D1, ?, D2> getExternal() {
+        return external;
+    }
+
+    /**
+     * Accessor method for property
+     * @return The policy applied to the input
+     */
+    public MaskBasePolicy<?, E, ?, D1> getInternal() {
+        return internal;
+    }
+
     protected void setExternal(final MaskBasePolicy<?, D1, ?, D2> p) {
         external = p;
     }
@@ -0,0 +1,85 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.policies;
+
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
+
+/** Implements the policy resulting from the compilation of a composed policy by the
+ * {@code PolicyCompiler}. It can be given to the simulation elements in place of the
+ * composed policy, and also provides the primitive decisions, which are only valid when
+ * the decisions are of the corresponding type. The implicit input is forwarded to the
+ * composed policy.
+ *
+ * @author Daniele Gianni
+ */
+public final class CompiledPolicy<I, E, D> extends MaskBasePolicy<I, E, Void, D> implements IntPolicy<E>, BooleanPolicy<E>, DoublePolicy<E> {
+
+    // the composed policy
+    private final MaskBasePolicy<I, E, ?, D> source;
+
+    // the compiled decision function
+    private final PolicyCompiler.Node root;
+
+    CompiledPolicy(final MaskBasePolicy<I, E, ?, D> source, final PolicyCompiler.Node root) {
+        super(source.getImplicitInput(), null);
+
+        this.source = source;
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public D getDecisionFor(final E e) {
+        return (D) root.decide(e);
+    }
+
+    public int getIntDecisionFor(final E e) {
+        return root.decideInt(e);
+    }
+
+    public boolean getBooleanDecisionFor(final E e) {
+        return root.decideBoolean(e);
+    }
+
+    public double getDoubleDecisionFor(final E e) {
+        return root.decideDouble(e);
+    }
+
+    public void setImplicitInput(final I i) {
+        super.setImplicitInput(i);
+        if (source != null) {
+            source.setImplicitInput(i);
+        }
+    }
+
+    /**
+     * Accessor method for property
+     * @return The composed policy this policy has been compiled from
+     */
+    public MaskBasePolicy<I, E, ?, D> getSource() {
+        return source;
+    }
+
+    PolicyCompiler.Node getRoot() {
+        return root;
+    }
+}
@@ -77,6 +77,22 @@ public abstract class ConditionBasedPolicy<I, E, S, D> extends MaskBasePolicy<I,
         }
     }
     
+    /**
+     * Accessor method for property
+     * @return The policy applied when the condition is true
+     */
+    public MaskBasePolicy<?, E, ?, D> getTruePolicy() {
+        return truePolicy;
+    }
+
+    /**
+     * Accessor method for property
+     * @return The policy applied when the condition is false
+     */
+    public MaskBasePolicy<?, E, ?, D> getFalsePolicy() {
+        return falsePolicy;
+    }
+    
     /*protected*/ public void setTruePolicy(MaskBasePolicy<?, E, ?, D> p) {
         truePolicy = p;
     }
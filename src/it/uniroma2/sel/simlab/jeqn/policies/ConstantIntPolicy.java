@@ -0,0 +1,59 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.policies;
+
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
+
+/** Implements a policy always making the same integer decision, whatever the input, such as
+ * a constant number of sons or clones or a fixed routing. Being a mask, it can be given
+ * directly to the simulation elements, which call its primitive decision.
+ *
+ * @author Daniele Gianni
+ */
+public final class ConstantIntPolicy<E> extends MaskBasePolicy<Void, E, Void, Integer> implements IntPolicy<E> {
+
+    // the decision
+    private final int decision;
+
+    // the boxed decision, for the generic callers
+    private final Integer boxedDecision;
+
+    /**
+     * Creates a new instance of ConstantIntPolicy
+     * @param decision The decision
+     */
+    public ConstantIntPolicy(final int decision) {
+        super(null, null);
+
+        this.decision = decision;
+        boxedDecision = Integer.valueOf(decision);
+    }
+
+    public Integer getDecisionFor(final E e) {
+        return boxedDecision;
+    }
+
+    public int getIntDecisionFor(final E e) {
+        return decision;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.policies;
+
+import it.uniroma2.sel.simlab.jeqn.policies.basicBlocks.IdentityPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskExplicitPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskImplicitAndExplicitInputDependentPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskImplicitButNotExplicitInputAndStateDependentPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskImplicitButNotExplicitInputDependentPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskStateDependentPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskStateOnlyDependentPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Compiles a composed policy, at network building time, into a flat decision function.
+ * The compilation:
+ * <ul>
+ * <li>strips the masks, so that the masked policies are called directly;</li>
+ * <li>flattens the nested {@code CombinedPolicy} chains, {@code UserBasedPolicy} included,
+ * into a single sequence of stages evaluated by a loop, with no boxed intermediate
+ * decision kept beyond the following stage;</li>
+ * <li>removes the identity stages;</li>
+ * <li>compiles the branches of {@code ConditionBasedPolicy} trees, whose condition and
+ * operations are still evaluated by the original policy;</li>
+ * <li>calls the primitive decision of the policies implementing {@code IntPolicy},
+ * {@code BooleanPolicy} or {@code DoublePolicy}, when they are the last stage.</li>
+ * </ul>
+ * Policies of any other type, {@code InterleavedPolicy} included, whose decision policy
+ * changes at each call, are kept as opaque stages. The compilation neither changes the
+ * decisions nor the order in which the stateful policies are called.
+ *
+ * @author Daniele Gianni
+ */
+public final class PolicyCompiler {
+
+    private PolicyCompiler() {
+    }
+
+    /**
+     * Compiles the given policy
+     * @param p The composed policy
+     * @return The compiled policy, making the same decisions
+     */
+    public static <I, E, D> CompiledPolicy<I, E, D> compile(final MaskBasePolicy<I, E, ?, D> p) {
+        return new CompiledPolicy<I, E, D>(p, compileNode(p));
+    }
+
+    /*
+     * Compiles a policy into a node of the decision function
+     */
+    @SuppressWarnings("unchecked")
+    static Node compileNode(final Object p) {
+        if (p instanceof CompiledPolicy) {
+            return ((CompiledPolicy) p).getRoot();
+        }
+
+        if (p instanceof CombinedPolicy) {
+            CombinedPolicy<?, ?, ?> c = (CombinedPolicy<?, ?, ?>) p;
+
+            List<Node> stages = new ArrayList<Node>();
+            addStages(stages, compileNode(c.getInternal()));
+            addStages(stages, compileNode(c.getExternal()));
+
+            if (stages.isEmpty()) {
+                return new LeafNode((ExplicitInputPolicy<Object, ?>) c.getInternal());
+            }
+            if (stages.size() == 1) {
+                return stages.get(0);
+            }
+            return new ChainNode(stages.toArray(new Node[stages.size()]));
+        }
+
+        if (p instanceof ConditionBasedPolicy) {
+            ConditionBasedPolicy<?, Object, ?, Object> c = (ConditionBasedPolicy<?, Object, ?, Object>) p;
+
+            return new ConditionNode(c, compileNode(c.getTruePolicy()), compileNode(c.getFalsePolicy()));
+        }
+
+        // masks of policies with explicit input are stripped
+        if (p instanceof MaskExplicitPolicy) {
+            return compileNode(((MaskExplicitPolicy) p).getPolicy());
+        }
+        if (p instanceof MaskImplicitAndExplicitInputDependentPolicy) {
+            return compileNode(((MaskImplicitAndExplicitInputDependentPolicy) p).getPolicy());
+        }
+
+        // masks of policies without explicit input are kept, their primitive decision is called directly
+        if (p instanceof MaskImplicitButNotExplicitInputDependentPolicy) {
+            return new LeafNode(p, ((MaskImplicitButNotExplicitInputDependentPolicy) p).getPolicy());
+        }
+        if (p instanceof MaskStateDependentPolicy) {
+            return new LeafNode(p, ((MaskStateDependentPolicy) p).getPolicy());
+        }
+        if (p instanceof MaskStateOnlyDependentPolicy) {
+            return new LeafNode(p, ((MaskStateOnlyDependentPolicy) p).getPolicy());
+        }
+        if (p instanceof MaskImplicitButNotExplicitInputAndStateDependentPolicy) {
+            return new LeafNode(p, ((MaskImplicitButNotExplicitInputAndStateDependentPolicy) p).getPolicy());
+        }
+
+        return new LeafNode((ExplicitInputPolicy<Object, ?>) p);
+    }
+
+    /*
+     * Appends the stages of a node, flattening the chains and removing the identities
+     */
+    private static void addStages(final List<Node> stages, final Node n) {
+        if (n instanceof ChainNode) {
+            for (Node s : ((ChainNode) n).stages) {
+                stages.add(s);
+            }
+        } else if (!((n instanceof LeafNode) && (((LeafNode) n).policy instanceof IdentityPolicy))) {
+            stages.add(n);
+        }
+    }
+
+    /**
+     * A node of the compiled decision function
+     */
+    abstract static class Node {
+
+        abstract Object decide(Object e);
+
+        int decideInt(final Object e) {
+            return ((Integer) decide(e)).intValue();
+        }
+
+        boolean decideBoolean(final Object e) {
+            return ((Boolean) decide(e)).booleanValue();
+        }
+
+        double decideDouble(final Object e) {
+            return ((Number) decide(e)).doubleValue();
+        }
+    }
+
+    /*
+     * Calls a policy, through its primitive decision when available
+     */
+    @SuppressWarnings("unchecked")
+    private static final class LeafNode extends Node {
+
+        private final ExplicitInputPolicy<Object, ?> policy;
+
+        private final IntPolicy<Object> intPolicy;
+        private final BooleanPolicy<Object> booleanPolicy;
+        private final DoublePolicy<Object> doublePolicy;
+
+        // whether the primitive policy ignores the input, as masked without explicit input
+        private final boolean implicit;
+
+        LeafNode(final ExplicitInputPolicy<Object, ?> p) {
+            this(p, p, false);
+        }
+
+        LeafNode(final Object mask, final Object masked) {
+            this((ExplicitInputPolicy<Object, ?>) mask, masked, true);
+        }
+
+        private LeafNode(final ExplicitInputPolicy<Object, ?> p, final Object primitive, final boolean implicit) {
+            policy = p;
+
+            intPolicy = (primitive instanceof IntPolicy) ? (IntPolicy<Object>) primitive : null;
+            booleanPolicy = (primitive instanceof BooleanPolicy) ? (BooleanPolicy<Object>) primitive : null;
+            doublePolicy = (primitive instanceof DoublePolicy) ? (DoublePolicy<Object>) primitive : null;
+
+            this.implicit = implicit;
+        }
+
+        Object decide(final Object e) {
+            return policy.getDecisionFor(e);
+        }
+
+        int decideInt(final Object e) {
+            return (intPolicy != null) ? intPolicy.getIntDecisionFor(implicit ? null : e) : super.decideInt(e);
+        }
+
+        boolean decideBoolean(final Object e) {
+            return (booleanPolicy != null) ? booleanPolicy.getBooleanDecisionFor(implicit ? null : e) : super.decideBoolean(e);
+        }
+
+        double decideDouble(final Object e) {
+            return (doublePolicy != null) ? doublePolicy.getDoubleDecisionFor(implicit ? null : e) : super.decideDouble(e);
+        }
+    }
+
+    /*
+     * Applies a sequence of stages, each to the decision of the previous one
+     */
+    private static final class ChainNode extends Node {
+
+        private final Node[] stages;
+
+        // the last stage
+        private final Node last;
+
+        ChainNode(final Node[] stages) {
+            this.stages = stages;
+            last = stages[stages.length - 1];
+        }
+
+        private Object decideButLast(final Object e) {
+            Object d = e;
+            for (int i = 0; i < stages.length - 1; i++) {
+                d = stages[i].decide(d);
+            }
+            return d;
+        }
+
+        Object decide(final Object e) {
+            return last.decide(decideButLast(e));
+        }
+
+        int decideInt(final Object e) {
+            return last.decideInt(decideButLast(e));
+        }
+
+        boolean decideBoolean(final Object e) {
+            return last.decideBoolean(decideButLast(e));
+        }
+
+        double decideDouble(final Object e) {
+            return last.decideDouble(decideButLast(e));
+        }
+    }
+
+    /*
+     * Evaluates the condition of the original policy, and then the compiled branch
+     */
+    private static final class ConditionNode extends Node {
+
+        private final ConditionBasedPolicy<?, Object, ?, Object> policy;
+
+        private final Node trueNode;
+        private final Node falseNode;
+
+        ConditionNode(final ConditionBasedPolicy<?, Object, ?, Object> p, final Node trueNode, final Node falseNode) {
+            policy = p;
+
+            this.trueNode = trueNode;
+            this.falseNode = falseNode;
+        }
+
+        Object decide(final Object e) {
+            if (policy.condition(e)) {
+                return policy.doOpTrue(trueNode.decide(e));
+            } else {
+                return policy.doOpFalse(falseNode.decide(e));
+            }
+        }
+    }
+}
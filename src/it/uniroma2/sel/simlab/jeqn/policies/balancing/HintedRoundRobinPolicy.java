@@ -0,0 +1,104 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.policies.balancing;
+
+import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.QueueLengthView;
+
+/** Implements a round-robin load balancing that uses the queue lengths as occupancy hints.
+ * Starting from the queue after the last chosen one, the first queue with no more users than
+ * the threshold is chosen. At most a given number of queues is probed per decision; if none
+ * of them is below the threshold, the shortest probed queue is chosen. With a threshold of
+ * {@code 0} and a single probe the policy is the plain round-robin.
+ *
+ * @author Daniele Gianni
+ */
+public class HintedRoundRobinPolicy extends LoadBalancingPolicy {
+
+    // the greatest number of users of a queue that is chosen without further probes
+    private int threshold;
+
+    // the greatest number of queues probed per decision
+    private int maxProbes;
+
+    // the queue probed first by the next decision
+    private int nextQueue;
+
+    /**
+     * Creates a new instance of HintedRoundRobinPolicy
+     * @param queueLengthView The lengths of the queues among which the load is balanced
+     * @param threshold The greatest number of users of a queue that is chosen without further probes
+     * @param maxProbes The greatest number of queues probed per decision, at least {@code 1}
+     */
+    public HintedRoundRobinPolicy(final QueueLengthView queueLengthView, final int threshold, final int maxProbes) {
+        super(queueLengthView, null);
+
+        setThreshold(threshold);
+        setMaxProbes(maxProbes);
+    }
+
+    public int getIntDecisionFor(final User u) {
+        int n = queueLengthView.getNumberOfQueues();
+        int probes = Math.min(maxProbes, n);
+
+        int q = (nextQueue < n) ? nextQueue : 0;
+        int best = q;
+        int bestLength = Integer.MAX_VALUE;
+
+        for (int j = 0; j < probes; j++) {
+            int length = queueLengthView.getQueueLength(q);
+
+            if (length <= threshold) {
+                best = q;
+                break;
+            }
+            if (length < bestLength) {
+                best = q;
+                bestLength = length;
+            }
+            q = (q + 1 == n) ? 0 : (q + 1);
+        }
+
+        nextQueue = (best + 1 == n) ? 0 : (best + 1);
+        return best;
+    }
+
+    /**
+     * Accessor method for the property
+     * @param i The greatest number of users of a queue that is chosen without further probes
+     */
+    public void setThreshold(final int i) {
+        threshold = i;
+    }
+
+    /**
+     * Accessor method for the property
+     * @param i The greatest number of queues probed per decision, at least {@code 1}
+     */
+    public void setMaxProbes(final int i) {
+        if (i < 1) {
+            throw new IllegalArgumentException("Invalid number of probes: " + i);
+        }
+        maxProbes = i;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.policies.balancing;
+
+import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.IdleQueueListener;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.QueueLengthView;
+import it.uniroma2.sel.simlab.jrand.objectStreams.numericStreams.NumericStream;
+
+/** Implements the join-idle-queue load balancing. The policy keeps the list of the idle
+ * queues, which the view reports through the {@code IdleQueueListener} callback, and sends
+ * each user to the queue idle for the longest time, removing it from the list. When no queue
+ * is idle, the decision is left to a fallback policy, or taken uniformly at random. Hence a
+ * decision takes constant time and reads no queue length. The queues that are empty when the
+ * view is set are considered idle.
+ *
+ * @author Daniele Gianni
+ */
+public class JoinIdleQueuePolicy extends LoadBalancingPolicy implements IdleQueueListener {
+
+    // the idle queues, in order of report, as a circular buffer
+    private int[] idleQueues;
+    private int firstIdle;
+    private int idleCount;
+
+    // whether each queue is in the idle list
+    private boolean[] listed;
+
+    // the policy used when no queue is idle, random choice if null
+    private LoadBalancingPolicy fallbackPolicy;
+
+    // statistics
+    private long idleDispatches;
+    private long fallbackDispatches;
+
+    /**
+     * Creates a new instance of JoinIdleQueuePolicy
+     * @param queueLengthView The lengths of the queues among which the load is balanced
+     * @param uniformStream The stream of uniform numbers in [0, 1), for the choices when no queue is idle
+     */
+    public JoinIdleQueuePolicy(final QueueLengthView queueLengthView, final NumericStream uniformStream) {
+        super(queueLengthView, uniformStream);
+    }
+
+    /**
+     * Creates a new instance of JoinIdleQueuePolicy
+     * @param queueLengthView The lengths of the queues among which the load is balanced
+     * @param fallbackPolicy The policy deciding when no queue is idle
+     */
+    public JoinIdleQueuePolicy(final QueueLengthView queueLengthView, final LoadBalancingPolicy fallbackPolicy) {
+        super(queueLengthView, null);
+
+        setFallbackPolicy(fallbackPolicy);
+    }
+
+    public int getIntDecisionFor(final User u) {
+        if (idleCount > 0) {
+            int q = idleQueues[firstIdle];
+
+            firstIdle = (firstIdle + 1) % idleQueues.length;
+            idleCount--;
+            listed[q] = false;
+
+            idleDispatches++;
+            return q;
+        }
+
+        fallbackDispatches++;
+        return (fallbackPolicy == null) ? randomQueue() : fallbackPolicy.getIntDecisionFor(u);
+    }
+
+    public void queueIdle(final int i) {
+        if (!listed[i]) {
+            listed[i] = true;
+            idleQueues[(firstIdle + idleCount) % idleQueues.length] = i;
+            idleCount++;
+        }
+    }
+
+    /**
+     * Gets the number of queues currently in the idle list
+     * @return The number of idle queues
+     */
+    public int getIdleQueues() {
+        return idleCount;
+    }
+
+    /**
+     * Gets the number of users sent to an idle queue
+     * @return The number of users sent to an idle queue
+     */
+    public long getIdleDispatches() {
+        return idleDispatches;
+    }
+
+    /**
+     * Gets the number of users arrived when no queue was idle
+     * @return The number of users dispatched by the fallback
+     */
+    public long getFallbackDispatches() {
+        return fallbackDispatches;
+    }
+
+    /**
+     * Accessor method for the property
+     * @param p The policy deciding when no queue is idle, {@code null} for the random choice
+     */
+    public void setFallbackPolicy(final LoadBalancingPolicy p) {
+        fallbackPolicy = p;
+
+        if ((p != null) && (queueLengthView != null)) {
+            p.setQueueLengthView(queueLengthView);
+        }
+    }
+
+    /**
+     * Sets the view, registers this policy as its idle queue listener and fills the idle
+     * list with the queues currently empty
+     * @param v The lengths of the queues among which the load is balanced
+     */
+    public void setQueueLengthView(final QueueLengthView v) {
+        super.setQueueLengthView(v);
+
+        if (v == null) {
+            return;
+        }
+
+        int n = v.getNumberOfQueues();
+        idleQueues = new int[n];
+        listed = new boolean[n];
+        firstIdle = 0;
+        idleCount = 0;
+
+        for (int i = 0; i < n; i++) {
+            if (v.getQueueLength(i) == 0) {
+                queueIdle(i);
+            }
+        }
+        v.setIdleQueueListener(this);
+
+        if (fallbackPolicy != null) {
+            fallbackPolicy.setQueueLengthView(v);
+        }
+    }
+}
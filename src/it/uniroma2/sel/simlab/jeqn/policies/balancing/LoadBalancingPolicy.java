@@ -0,0 +1,91 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.policies.balancing;
+
+import it.uniroma2.sel.simlab.jeqn.policies.IntPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
+import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.QueueLengthView;
+import it.uniroma2.sel.simlab.jrand.objectStreams.numericStreams.NumericStream;
+
+/** Provides the basic schema for the load balancing policies, which choose the number of a
+ * queue by reading the queue lengths through a {@code QueueLengthView}. Being masks deciding
+ * an integer, the policies can be given directly to a {@code Router}, with a view of the
+ * downstream waiting systems, or to a {@code UserMultiQueue}, through
+ * {@code LoadBalancingDispatchingPolicy}. The view can be set after the construction, as a
+ * multi queue needs the policy to be built.
+ *
+ * @author Daniele Gianni
+ */
+public abstract class LoadBalancingPolicy extends MaskBasePolicy<Void, User, Void, Integer> implements IntPolicy<User> {
+
+    // the lengths of the queues among which the load is balanced
+    protected QueueLengthView queueLengthView;
+
+    // the stream of uniform numbers in [0, 1), for the random choices
+    protected NumericStream uniformStream;
+
+    /**
+     * Creates a new instance of LoadBalancingPolicy
+     * @param queueLengthView The lengths of the queues among which the load is balanced
+     * @param uniformStream The stream of uniform numbers in [0, 1), for the random choices
+     */
+    public LoadBalancingPolicy(final QueueLengthView queueLengthView, final NumericStream uniformStream) {
+        super(null, null);
+
+        this.uniformStream = uniformStream;
+        setQueueLengthView(queueLengthView);
+    }
+
+    public Integer getDecisionFor(final User u) {
+        return Integer.valueOf(getIntDecisionFor(u));
+    }
+
+    /**
+     * Chooses a queue uniformly at random
+     * @return The queue number
+     */
+    protected int randomQueue() {
+        int n = queueLengthView.getNumberOfQueues();
+        int i = (int) (uniformStream.getNext().doubleValue() * n);
+
+        // the uniform number rounded up to 1
+        return (i < n) ? i : (n - 1);
+    }
+
+    /**
+     * Accessor method for the property
+     * @return The lengths of the queues among which the load is balanced
+     */
+    public QueueLengthView getQueueLengthView() {
+        return queueLengthView;
+    }
+
+    /**
+     * Accessor method for the property
+     * @param v The lengths of the queues among which the load is balanced
+     */
+    public void setQueueLengthView(final QueueLengthView v) {
+        queueLengthView = v;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.policies.balancing;
+
+import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.QueueLengthView;
+import it.uniroma2.sel.simlab.jrand.objectStreams.numericStreams.NumericStream;
+
+/** Implements the power-of-d-choices load balancing: d distinct queues are sampled uniformly
+ * at random and the shortest of them is chosen, the first sampled on ties. Each decision reads
+ * d queue lengths, whatever the number of queues, and already with d = 2 the queue lengths are
+ * close to those of the join-shortest-queue. If d is not less than the number of queues, all
+ * the queues are examined.
+ *
+ * @author Daniele Gianni
+ */
+public class PowerOfDChoicesPolicy extends LoadBalancingPolicy {
+
+    // the number of queues sampled per decision
+    private int d;
+
+    // the queues sampled by the current decision
+    private int[] sampled;
+
+    /**
+     * Creates a new instance of PowerOfDChoicesPolicy
+     * @param queueLengthView The lengths of the queues among which the load is balanced
+     * @param d The number of queues sampled per decision
+     * @param uniformStream The stream of uniform numbers in [0, 1)
+     */
+    public PowerOfDChoicesPolicy(final QueueLengthView queueLengthView, final int d, final NumericStream uniformStream) {
+        super(queueLengthView, uniformStream);
+
+        setD(d);
+    }
+
+    public int getIntDecisionFor(final User u) {
+        int n = queueLengthView.getNumberOfQueues();
+
+        if (d >= n) {
+            return shortestQueue(n);
+        }
+
+        int best = -1;
+        int bestLength = Integer.MAX_VALUE;
+
+        for (int j = 0; j < d; j++) {
+            int q = sampleDistinct(j);
+            int length = queueLengthView.getQueueLength(q);
+
+            if (length < bestLength) {
+                best = q;
+                bestLength = length;
+            }
+        }
+        return best;
+    }
+
+    /*
+     * samples a queue different from the first j sampled ones; d is small, hence the
+     * rejections are few and the linear check is cheap
+     */
+    private int sampleDistinct(final int j) {
+        while (true) {
+            int q = randomQueue();
+
+            int k = 0;
+            while ((k < j) && (sampled[k] != q)) {
+                k++;
+            }
+            if (k == j) {
+                sampled[j] = q;
+                return q;
+            }
+        }
+    }
+
+    private int shortestQueue(final int n) {
+        int best = 0;
+
+        for (int q = 1; q < n; q++) {
+            if (queueLengthView.getQueueLength(q) < queueLengthView.getQueueLength(best)) {
+                best = q;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Accessor method for the property
+     * @return The number of queues sampled per decision
+     */
+    public int getD() {
+        return d;
+    }
+
+    /**
+     * Accessor method for the property
+     * @param i The number of queues sampled per decision, at least {@code 1}
+     */
+    public void setD(final int i) {
+        if (i < 1) {
+            throw new IllegalArgumentException("Invalid number of choices: " + i);
+        }
+        d = i;
+        sampled = new int[i];
+    }
+}
@@ -42,6 +42,12 @@ public class MaskExplicitPolicy<E, D> extends MaskBasePolicy<Void, E, Void, D> {
     public D getDecisionFor(final E e) {
         return policy.getDecisionFor(e);
     }
-       
-    
+
+    /**
+     * Accessor method for property
+     * @return The masked policy
+     */
+    public ExplicitInputPolicy<E, D> getPolicy() {
+        return policy;
+    }
 }
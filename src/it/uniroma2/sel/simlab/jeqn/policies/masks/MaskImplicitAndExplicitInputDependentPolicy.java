@@ -45,4 +45,12 @@ public class MaskImplicitAndExplicitInputDependentPolicy<I, E, D> extends MaskBa
     public D getDecisionFor(final E e) {
         return policy.getDecisionFor(e);
     }
+
+    /**
+     * Accessor method for property
+     * @return The masked policy
+     */
+    public ImplicitAndExplicitInputDependentPolicy<I, E, D> getPolicy() {
+        return policy;
+    }
 }
@@ -47,4 +47,12 @@ public class MaskImplicitButNotExplicitInputAndStateDependentPolicy<I, S, D> ext
     protected void setPolicy(final ImplicitButNotExplicitInputAndStateDependentPolicy<I, S, D> p) {
         policy = p;
     }
+
+    /**
+     * Accessor method for property
+     * @return The masked policy
+     */
+    public ImplicitButNotExplicitInputAndStateDependentPolicy<I, S, D> getPolicy() {
+        return policy;
+    }
 }
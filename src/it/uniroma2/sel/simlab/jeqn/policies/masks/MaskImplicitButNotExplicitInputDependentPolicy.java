@@ -46,5 +46,13 @@ public final class MaskImplicitButNotExplicitInputDependentPolicy<I, E, D> exten
     
     protected void setPolicy(final ImplicitButNotExplicitInputOnlyDependentPolicy<I, D> p) {
         policy = p;
-    }    
+    }
+
+    /**
+     * Accessor method for property
+     * @return The masked policy
+     */
+    public ImplicitButNotExplicitInputOnlyDependentPolicy<I, D> getPolicy() {
+        return policy;
+    }
 }
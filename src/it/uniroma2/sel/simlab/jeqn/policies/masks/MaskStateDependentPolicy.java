@@ -44,5 +44,13 @@ public class MaskStateDependentPolicy<E, S, D> extends MaskBasePolicy<Void, E, S
     
     public void setPolicy(final StateOnlyDependentPolicy<S, D> p) { 
         policy = p;
-    }       
+    }
+
+    /**
+     * Accessor method for property
+     * @return The masked policy
+     */
+    public StateOnlyDependentPolicy<S, D> getPolicy() {
+        return policy;
+    }
 }
@@ -39,5 +39,13 @@ public class MaskStateOnlyDependentPolicy<S, D> extends MaskImplicitPolicy<Void,
       
     public D getDecision() {
         return policy.getDecision();
-    }        
+    }
+
+    /**
+     * Accessor method for property
+     * @return The masked policy
+     */
+    public StateOnlyDependentPolicy<S, D> getPolicy() {
+        return policy;
+    }
 }
@@ -23,11 +23,12 @@
 package it.uniroma2.sel.simlab.jeqn.requests;
 
 import it.uniroma2.sel.simlab.jeqn.users.Category;
-
-import java.util.HashMap;
+import it.uniroma2.sel.simlab.jeqn.users.CategoryArray;
+import it.uniroma2.sel.simlab.jeqn.users.User;
 
 /** 
  * Creates a multiple category service request generator by specifying a mapping between service request generators and categories.
+ * The generators are looked up by the category ordinal.
  * 
  * @see it.uniroma2.sel.simlab.jeqn.requests.MultiCatServiceRequestGenerator
  * @see it.uniroma2.sel.simlab.jeqn.requests.SingleCatServiceRequestGenerator
@@ -36,13 +37,13 @@ import java.util.HashMap;
  */
 public class MapMultiCatServiceRequestGenerator extends MultiCatServiceRequestGenerator {
     
-    protected HashMap <Category, SingleCatServiceRequestGenerator> categoryToServiceRequestGeneratorMap;
+    protected CategoryArray<SingleCatServiceRequestGenerator> categoryToServiceRequestGeneratorMap;
     
     /** 
      * Creates a new MapMultiCatServiceRequestGenerator that allows to associate a single category service request generator for each different category.
      * */
     public MapMultiCatServiceRequestGenerator() {
-        categoryToServiceRequestGeneratorMap = new HashMap<Category, SingleCatServiceRequestGenerator>(); 
+        categoryToServiceRequestGeneratorMap = new CategoryArray<SingleCatServiceRequestGenerator>(); 
     }
 
     /**
@@ -57,5 +58,9 @@ public class MapMultiCatServiceRequestGenerator extends MultiCatServiceRequestGe
     public ServiceRequest getNext(final Category c) {
         return categoryToServiceRequestGeneratorMap.get(c).getNext(null);
     }
+
+    public ServiceRequest getNext(final User u) {
+        return categoryToServiceRequestGeneratorMap.get(u.getCategoryOrdinal()).getNext(null);
+    }
     
 }
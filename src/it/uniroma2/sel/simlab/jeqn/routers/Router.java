@@ -23,6 +23,8 @@
 package it.uniroma2.sel.simlab.jeqn.routers;
 
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNUnexpectedEventReceivedException;
+import it.uniroma2.sel.simlab.jeqn.policies.IntPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.IntPolicyAdapter;
 import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
 import it.uniroma2.sel.simlab.simarch.data.Time;
 
@@ -31,10 +33,10 @@ import it.uniroma2.sel.simlab.jeqn.users.User;
 import it.uniroma2.sel.simlab.simcomp.basic.ports.InPort;
 import it.uniroma2.sel.simlab.simcomp.basic.ports.OutPort;
 
+import it.uniroma2.sel.simlab.statistics.estimators.ContinuousPopulationMean;
 import it.uniroma2.sel.simlab.statistics.estimators.DiscretePopulationMean;
 
-import it.uniroma2.sel.simlab.generalLibrary.dataStructures.SortedList;
-import it.uniroma2.sel.simlab.generalLibrary.dataStructures.UnableToInsertException;
+import it.uniroma2.sel.simlab.jeqn.dataStructures.DoubleTimeQueue;
 import it.uniroma2.sel.simlab.jeqn.events.Events;
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNConfigurationException;
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNException;
@@ -50,7 +52,10 @@ import it.uniroma2.sel.simlab.simarch.factories.Layer3ToLayer2Factory;
 import java.util.ArrayList;
 import java.util.List;
 
-/** Implements the simulation logic of a EQN router component.
+/** Implements the simulation logic of a EQN router component. The end transmission
+ * times of the users in routing are kept as primitive times in a queue that is a plain
+ * ring while the delay is constant, and turns into a heap if a subclass makes the
+ * delay vary so that the times are no longer ordered.
  *
  * @author  Daniele Gianni
  */
@@ -74,6 +79,11 @@ public class Router extends JEQNElement {
      */
     protected MaskBasePolicy<?, User, ?, Integer> routingPolicy;
 
+    /*
+     * the routing policy called with a primitive decision
+     */
+    protected IntPolicy<User> intRoutingPolicy;
+
     /*
      * the element extracting the decision data for the routing policy, for each incoming user
      */
@@ -92,7 +102,22 @@ public class Router extends JEQNElement {
     /*
      * collection of the end transmission times - to determine whether a user is in routing state (ie routed but still to be delivered to the recipient entity
      */
-    protected SortedList outgoingTimes;
+    protected DoubleTimeQueue outgoingTimes;
+
+    /*
+     * time-averaged number of users in routing state
+     */
+    protected ContinuousPopulationMean usersInRoutingMean;
+
+    /*
+     * max number of users in routing state
+     */
+    protected int maxUsersInRouting;
+
+    /*
+     * time of the last update of the users in routing statistics
+     */
+    protected double lastUsersInRoutingUpdateTime;
 
     /*
      * total number of users that have been routed
@@ -122,11 +147,19 @@ public class Router extends JEQNElement {
         setDelay(tdelay);
 
         init(numberOfOutPorts);
-        this.routingPolicy = routingPolicy;
+        setRoutingPolicy(routingPolicy);
 
         //decisionDataFactory = ddFactory;
     }
 
+    /*
+     * Sets the routing policy and its primitive view
+     */
+    protected void setRoutingPolicy(final MaskBasePolicy<?, User, ?, Integer> p) {
+        routingPolicy = p;
+        intRoutingPolicy = IntPolicyAdapter.adapt(p);
+    }
+
     private void init(final Integer i) throws InvalidNameException {
 
         // input port initialization
@@ -150,7 +183,10 @@ public class Router extends JEQNElement {
         usersRouted = 0;
         usersRoutedToPorts = new int[outPorts.size()];
         routingDelay = new DiscretePopulationMean();
-        outgoingTimes = new SortedList();
+        outgoingTimes = new DoubleTimeQueue();
+        usersInRoutingMean = new ContinuousPopulationMean();
+        maxUsersInRouting = 0;
+        lastUsersInRoutingUpdateTime = 0.0;
     }
     
     /**
@@ -164,25 +200,22 @@ public class Router extends JEQNElement {
             while (true) {
                 event = nextEvent();
 
-                // computation of the average inter arrival time
-                while (!outgoingTimes.isEmpty()) {
-                    if (getClock().isGreaterOrEqualThan((Time) outgoingTimes.seeFirst())) {
-                        outgoingTimes.removeFirst();
-                    } else {
-                        break;
-                    }
-                }
+                // removal of the users delivered since the last event
+                removeDeliveredUsers();
 
                 // router body - actual simulation logic
                 if (event.getTag().equals(Events.NEW_INCOMING_USER)) {
                     usersRouted++;
 
-                    outgoingTimes.add(getClock().increasedBy(delay));
+                    outgoingTimes.add(getClock().getValue() + delay.getValue());
+                    if (outgoingTimes.size() > maxUsersInRouting) {
+                        maxUsersInRouting = outgoingTimes.size();
+                    }
 
                     //routingDelay.insertNewSample(delay.getValue());
 
                     // updating routing statistics
-                    int outPortIndex = routingPolicy.getDecisionFor((User) event.getData());
+                    int outPortIndex = intRoutingPolicy.getIntDecisionFor((User) event.getData());
 
 //                    getDecisionFor(capture#808 of ? extends DecisionData) in ExplicitInputPolicy<capture#808 of ? extends DecisionData,java.lang.Integer> 
 //                            cannot be applied to (DecisionData<capture of ? extends DecisionData>)
@@ -206,8 +239,6 @@ public class Router extends JEQNElement {
                     throw new JEQNUnexpectedEventReceivedException(event);
                 }
             }
-        } catch (UnableToInsertException ex) {
-            throw new JEQNException(ex);
         } catch (UnlinkedPortException exL) {
             throw new JEQNConfigurationException(exL);
         } catch (TimeAlreadyPassedException exT) {
@@ -218,6 +249,29 @@ public class Router extends JEQNElement {
         }
     }
     
+    /*
+     * removes the end transmission times not after the current time, updating the
+     * users in routing statistics at each of them
+     */
+    private void removeDeliveredUsers() {
+        double now = getClock().getValue();
+
+        while (!outgoingTimes.isEmpty() && (outgoingTimes.peek() <= now)) {
+            updateUsersInRoutingStats(outgoingTimes.peek());
+            outgoingTimes.poll();
+        }
+        updateUsersInRoutingStats(now);
+    }
+
+    private void updateUsersInRoutingStats(final double t) {
+        double dt = t - lastUsersInRoutingUpdateTime;
+
+        if (dt > 0) {
+            usersInRoutingMean.insertNewSample(outgoingTimes.size(), dt);
+        }
+        lastUsersInRoutingUpdateTime = t;
+    }
+
     /**
      * Returns the router input port
      * @return Router input port
@@ -253,6 +307,17 @@ public class Router extends JEQNElement {
         else */
         return outgoingTimes.size();
     }
+
+    /**
+     * Returns the time-averaged number of users in routing, up to the current time
+     * 
+     * @return mean number of users routed but still to be delivered to the recipient entity.
+     */
+    public double getMeanUsersInRouting() {
+        removeDeliveredUsers();
+
+        return usersInRoutingMean.meanValue();
+    }
     
     /**
      * Prints the statistics data gathered by the component during the simulation.
@@ -266,15 +331,11 @@ public class Router extends JEQNElement {
                 System.out.println("\n\n");
                 System.out.println("Users Routed                : " + usersRouted);
 
-                while (!outgoingTimes.isEmpty()) {
-                    if (getClock().isGreaterOrEqualThan(((Time) outgoingTimes.seeFirst()))) {
-                        outgoingTimes.removeFirst();
-                    } else {
-                        break;
-                    }
-                }
+                removeDeliveredUsers();
 
                 System.out.println("Number of Users in routing  : " + getUsersInRouting());
+                System.out.println("Mean Users in routing       : " + usersInRoutingMean.meanValue());
+                System.out.println("Max Users in routing        : " + maxUsersInRouting);
 
                 System.out.println("");
                 for (int i = 0; i < usersRoutedToPorts.length; i++) {
@@ -300,4 +361,8 @@ public class Router extends JEQNElement {
     public void setOutPorts(final List<OutPort> ps) {
         outPorts = ps;
     }
+
+    public Time getLookahead() {
+        return delay;
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.routers.policies.routing;
+
+import it.uniroma2.sel.simlab.jeqn.dataStructures.AliasTable;
+import it.uniroma2.sel.simlab.jeqn.policies.IntPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
+import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jrand.objectStreams.numericStreams.NumericStream;
+
+/** Implements a probabilistic routing policy, which chooses each output port with a probability
+ * proportional to its weight. The port is sampled in constant time, whatever the number of ports,
+ * by means of an alias table, and a single uniform number per user. The weights can be changed
+ * during the simulation, and the table is rebuilt once, at the next routed user. Being a mask,
+ * the policy can be given directly to the {@code Router}.
+ *
+ * @author Daniele Gianni
+ */
+public class AliasRoutingPolicy extends MaskBasePolicy<Void, User, Void, Integer> implements IntPolicy<User> {
+
+    // the alias table of the port weights
+    private final AliasTable aliasTable;
+
+    // the stream of uniform numbers in [0, 1)
+    private final NumericStream uniformStream;
+
+    /**
+     * Creates a new instance of AliasRoutingPolicy
+     * @param weights The weights of the output ports, in the order of the ports
+     * @param uniformStream The stream of uniform numbers in [0, 1)
+     */
+    public AliasRoutingPolicy(final double[] weights, final NumericStream uniformStream) {
+        super(null, null);
+
+        aliasTable = new AliasTable(weights);
+        this.uniformStream = uniformStream;
+    }
+
+    public Integer getDecisionFor(final User u) {
+        return Integer.valueOf(getIntDecisionFor(u));
+    }
+
+    public int getIntDecisionFor(final User u) {
+        return aliasTable.sample(uniformStream.getNext().doubleValue());
+    }
+
+    /**
+     * Accessor method for the property
+     * @param port The index of the output port
+     * @return The weight of the port
+     */
+    public double getWeight(final int port) {
+        return aliasTable.getWeight(port);
+    }
+
+    /**
+     * Changes the weight of an output port
+     * @param port The index of the output port
+     * @param w The new weight of the port
+     */
+    public void setWeight(final int port, final double w) {
+        aliasTable.setWeight(port, w);
+    }
+}
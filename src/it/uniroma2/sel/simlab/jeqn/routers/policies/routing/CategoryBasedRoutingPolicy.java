@@ -22,17 +22,18 @@
 
 package it.uniroma2.sel.simlab.jeqn.routers.policies.routing;
 
-import it.uniroma2.sel.simlab.jeqn.policies.MapImplicitAndExplicitInputDependentPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.CategoryMapPolicy;
 import it.uniroma2.sel.simlab.jeqn.users.Category;
 
 import java.util.Map;
 
 /** Defines a user-category based routing policy, according to which the output port depends on the
- * user category. Specifically, this class is defined as a specialization of a mapping policy
+ * user category. Specifically, this class is defined as a specialization of a mapping policy, and the
+ * output port is looked up by the category ordinal
  *
  * @author Daniele Gianni
  */
-public class CategoryBasedRoutingPolicy extends MapImplicitAndExplicitInputDependentPolicy<Category, Integer>{
+public class CategoryBasedRoutingPolicy extends CategoryMapPolicy<Integer>{
     
     /**
      * Creates a new CategoryBasedRoutingPolicy with the specified mapping between category and output port index.
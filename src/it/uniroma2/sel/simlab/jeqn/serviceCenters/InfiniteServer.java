@@ -22,8 +22,6 @@
 
 package it.uniroma2.sel.simlab.jeqn.serviceCenters;
 
-import it.uniroma2.sel.simlab.generalLibrary.dataStructures.SortedList;
-import it.uniroma2.sel.simlab.generalLibrary.dataStructures.UnableToInsertException;
 import it.uniroma2.sel.simlab.jeqn.errors.JEQNError;
 import it.uniroma2.sel.simlab.jeqn.events.Events;
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNException;
@@ -39,9 +37,14 @@ import it.uniroma2.sel.simlab.simarch.exceptions.InvalidNameException;
 import it.uniroma2.sel.simlab.simarch.exceptions.layer2.TimeAlreadyPassedException;
 import it.uniroma2.sel.simlab.simarch.exceptions.layer2.UnlinkedPortException;
 import it.uniroma2.sel.simlab.simarch.factories.Layer3ToLayer2Factory;
+import it.uniroma2.sel.simlab.statistics.estimators.ContinuousPopulationMean;
 import it.uniroma2.sel.simlab.statistics.estimators.DiscretePopulationMean;
 
-/** Implements the simulation logic of a EQN Infinite Server
+/** Implements the simulation logic of a EQN Infinite Server. The users under processing
+ * are tracked by a min-heap of their absolute end processing times, which is popped as
+ * the clock advances, so that time and memory depend only on the current population.
+ * The population statistics include a histogram of the time spent with each number of
+ * users, whose last bucket collects all the larger populations.
  *
  * @author Daniele Gianni
  */
@@ -53,12 +56,30 @@ public class InfiniteServer extends ServiceCenter {
     // generates the time request for each incoming user
     private ServiceRequestGenerator serviceRequestGenerator;
     
+    // default number of buckets of the population histogram
+    private static final int DEFAULT_HISTOGRAM_SIZE = 64;
+
     //statistics
-    // the processing end times, for the determination of the number of user in processing state
-    private SortedList endProcessings;
+    // the absolute processing end times of the users in processing state, as a binary min-heap
+    private double[] endProcessings;
+
+    // number of users in processing state
+    private int usersUnderProcessing;
 
     // number of users received by this center
     private int usersReceived;
+
+    // time-averaged number of users in processing state
+    private ContinuousPopulationMean populationMean;
+
+    // max number of users in processing state
+    private int maxUsersUnderProcessing;
+
+    // time spent with i users in processing state, the last bucket for all the larger populations
+    private double[] populationHistogram;
+
+    // time of the last update of the population statistics
+    private double lastPopulationUpdateTime;
     
     /**
      * Creates a new InfiniteServer in the EQN network
@@ -73,11 +94,17 @@ public class InfiniteServer extends ServiceCenter {
     public InfiniteServer(final JEQNName name, final JEQNTimeFactory timeFactory, final Layer3ToLayer2Factory factory, final ServiceRequestGenerator generator, final Time sendingAheadDelay) throws InvalidNameException {        
         super(name, timeFactory, factory, sendingAheadDelay, timeFactory.makeFrom(0.0));      
         setServiceRequestGenerator(generator);
-        endProcessings = new SortedList();
+        endProcessings = new double[16];
+        usersUnderProcessing = 0;
         usersReceived = 0;
         
         serviceTimeMean = new DiscretePopulationMean();
         interarrivalTime = new DiscretePopulationMean();
+
+        populationMean = new ContinuousPopulationMean();
+        maxUsersUnderProcessing = 0;
+        populationHistogram = new double[DEFAULT_HISTOGRAM_SIZE];
+        lastPopulationUpdateTime = 0.0;
     }
     
     /**
@@ -94,19 +121,9 @@ public class InfiniteServer extends ServiceCenter {
             if (event.getTag().equals(Events.NEW_INCOMING_USER)) {
                 interarrivalTime.insertNewSample(event.getTime().getValue() - lastUserTime);
                 lastUserTime = event.getTime().getValue();
-    
-                usersProcessed = 0;
-
-                // counts how many users have been processed since the last incoming user
-                for (Object o : endProcessings) {
-                    Time t = (Time) o;
-                    
-                    if (t.isLesserOrEqualThan(event.getTime())) {
-                        usersProcessed++;
-                        t = null;
-                        //endProcessings.remove(o);
-                    }
-                }                
+
+                // removes the users whose processing ended before this incoming user
+                advanceTo(event.getTime().getValue());
                 
                 usersReceived++;
                 process((User) event.getData());
@@ -129,10 +146,11 @@ public class InfiniteServer extends ServiceCenter {
         Time sendingDelay = u.getServiceRequest().getValue().increasedBy(sendingAheadDelay);
 
         // keeps track of the end processing times
-        try {            
-            endProcessings.add(sendingDelay);
-        } catch (UnableToInsertException ex) {
-            ex.printStackTrace();
+        addEndProcessing(getClock().getValue() + u.getServiceRequest().getValue().getValue());
+
+        usersUnderProcessing++;
+        if (usersUnderProcessing > maxUsersUnderProcessing) {
+            maxUsersUnderProcessing = usersUnderProcessing;
         }
         
         try {
@@ -150,6 +168,90 @@ public class InfiniteServer extends ServiceCenter {
         }
     }
 
+    /*
+     * ends the processing of the users whose end processing time is not after the given
+     * time, updating the population statistics at each end
+     */
+    private void advanceTo(final double now) {
+        while ((usersUnderProcessing > 0) && (endProcessings[0] <= now)) {
+            updatePopulationStats(endProcessings[0]);
+
+            removeFirstEndProcessing();
+            usersUnderProcessing--;
+            usersProcessed++;
+        }
+        updatePopulationStats(now);
+    }
+
+    private void updatePopulationStats(final double t) {
+        double dt = t - lastPopulationUpdateTime;
+
+        if (dt > 0) {
+            populationMean.insertNewSample(usersUnderProcessing, dt);
+            populationHistogram[Math.min(usersUnderProcessing, populationHistogram.length - 1)] += dt;
+        }
+        lastPopulationUpdateTime = t;
+    }
+
+    private void addEndProcessing(final double t) {
+        if (usersUnderProcessing == endProcessings.length) {
+            double[] e = new double[endProcessings.length << 1];
+            System.arraycopy(endProcessings, 0, e, 0, usersUnderProcessing);
+            endProcessings = e;
+        }
+
+        int i = usersUnderProcessing;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (endProcessings[parent] <= t) {
+                break;
+            }
+            endProcessings[i] = endProcessings[parent];
+            i = parent;
+        }
+        endProcessings[i] = t;
+    }
+
+    private void removeFirstEndProcessing() {
+        int size = usersUnderProcessing - 1;
+        double t = endProcessings[size];
+
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if ((child + 1 < size) && (endProcessings[child + 1] < endProcessings[child])) {
+                child++;
+            }
+            if (t <= endProcessings[child]) {
+                break;
+            }
+            endProcessings[i] = endProcessings[child];
+            i = child;
+        }
+        endProcessings[i] = t;
+    }
+
+    /**
+     * Gets the time spent with each number of users in processing state, up to the
+     * current time. The last bucket collects all the larger populations.
+     * @return A copy of the population histogram
+     */
+    public double[] getPopulationHistogram() {
+        advanceTo(getClock().getValue());
+
+        return populationHistogram.clone();
+    }
+
+    /**
+     * Sets the number of buckets of the population histogram. To be called before the
+     * simulation starts.
+     * @param n The number of buckets, at least 2
+     */
+    public void setPopulationHistogramSize(final int n) {
+        populationHistogram = new double[Math.max(n, 2)];
+    }
+
     public ServiceRequestGenerator getServiceRequestGenerator() {
         return serviceRequestGenerator;
     }
@@ -162,6 +264,8 @@ public class InfiniteServer extends ServiceCenter {
     	if (STATS) {
 
     		if (interarrivalTime.sampleSize() > 0) {
+    			advanceTo(getClock().getValue());
+
     			System.out.println("Infinite Server " + getEntityName() + " : ");        
     			System.out.println("\n\n");
 
@@ -169,7 +273,23 @@ public class InfiniteServer extends ServiceCenter {
     			System.out.println("Mean service request time   : " + serviceTimeMean.meanValue());
     			System.out.println("Users received              : " + usersReceived);
     			System.out.println("Processed users             : " + usersProcessed);
-    			System.out.println("User under processing       : " + (usersReceived - usersProcessed));
+    			System.out.println("User under processing       : " + usersUnderProcessing);
+    			System.out.println("Mean users under processing : " + populationMean.meanValue());
+    			System.out.println("Max users under processing  : " + maxUsersUnderProcessing);
+
+    			double total = 0.0;
+    			for (double d : populationHistogram) {
+    				total += d;
+    			}
+    			if (total > 0) {
+    				System.out.println("Population histogram        :");
+    				for (int i = 0; i < populationHistogram.length; i++) {
+    					if (populationHistogram[i] > 0) {
+    						String users = (i < populationHistogram.length - 1) ? ("" + i) : (">= " + i);
+    						System.out.println("    " + users + " users : " + (populationHistogram[i] / total));
+    					}
+    				}
+    			}
     		}
     	}
     }
@@ -0,0 +1,405 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.serviceCenters;
+
+import it.uniroma2.sel.simlab.jeqn.events.Events;
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNConfigurationException;
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNException;
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNTimeException;
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNUnexpectedEventReceivedException;
+import it.uniroma2.sel.simlab.jeqn.general.JEQNName;
+import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
+import it.uniroma2.sel.simlab.jeqn.users.User;
+
+import it.uniroma2.sel.simlab.simarch.data.Event;
+import it.uniroma2.sel.simlab.simarch.data.Time;
+import it.uniroma2.sel.simlab.simarch.exceptions.InvalidNameException;
+import it.uniroma2.sel.simlab.simarch.exceptions.layer2.TimeAlreadyPassedException;
+import it.uniroma2.sel.simlab.simarch.exceptions.layer2.UnlinkedPortException;
+import it.uniroma2.sel.simlab.simarch.factories.Layer3ToLayer2Factory;
+
+import it.uniroma2.sel.simlab.statistics.estimators.DiscretePopulationMean;
+
+/** Implements an EQN Service Center with c identical non-preemptive servers, as a single
+ * element. The busy servers are tracked by a counter and the departures by an internal
+ * min-heap. The center keeps up to c next user requests outstanding at the connected
+ * waiting system, one for each idle server.
+ *
+ * @author Daniele Gianni
+ */
+public class MultiServerServiceCenter extends ServiceCenter {
+
+    //enables the printing and collecting of statistics
+    private static final Boolean STATS = true;
+
+    // number of servers
+    private int servers;
+
+    // number of servers currently busy
+    private int busyServers;
+
+    /*
+     * idle servers, kept as a stack
+     */
+    private int[] idleServers;
+
+    // whether each server is busy
+    private boolean[] serverBusy;
+
+    /*
+     * departures, kept as a binary min-heap on the departure time
+     */
+    private double[] departureTimes;
+    private int[] departureServers;
+
+    // statistics
+    /*
+     * the time of last incoming user
+     */
+    private double lastIncomingUserTime;
+
+    /*
+     * busy time of each server, in completed services
+     */
+    private double[] serverBusyTime;
+
+    /*
+     * start time of the current service of each server
+     */
+    private double[] serviceStartTime;
+
+    /*
+     * users processed by each server
+     */
+    private int[] serverUsersProcessed;
+
+    /*
+     * integral of the number of busy servers over the time
+     */
+    private double busyServersArea;
+
+    /*
+     * last time the number of busy servers changed
+     */
+    private double lastBusyServersChangeTime;
+
+    // max number of busy servers
+    private int maxBusyServers;
+
+    /**
+     * Creates a new MultiServerServiceCenter with the specified delays
+     *
+     * @param name Element name. The name is used to identify entities within the simulation model.
+     * @param timeFactory	Instances the jEQN time object that contains the value for the simulation time.
+     * @param factory	According to the Factory pattern, factory is used to instantiates the implementation of Layer3ToLayer2 interface, which provides level 3 services to level 2.
+     * @param servers The number of servers
+     * @param sendingAheadDelay	{@code Time} object that contains the delay introduced when sending a processed users to the next entity.
+     * @param requestDelay	{@code Time} object that contains the delay introduced when requesting the next user to the waiting system.
+     * @throws InvalidNameException	An InvalidNameException is raised when an issue concerning the element name occurs.
+     */
+    public MultiServerServiceCenter(final JEQNName name, final JEQNTimeFactory timeFactory, final Layer3ToLayer2Factory factory, final int servers, final Time sendingAheadDelay, final Time requestDelay) throws InvalidNameException {
+        super(name, timeFactory, factory, sendingAheadDelay, requestDelay);
+
+        init(servers);
+    }
+
+    /**
+     * Creates a new MultiServerServiceCenter with the delays specified as a {@code double}
+     *
+     * @param name Element name. The name is used to identify entities within the simulation model.
+     * @param timeFactory	Instances the jEQN time object that contains the value for the simulation time.
+     * @param factory	According to the Factory pattern, factory is used to instantiates the implementation of Layer3ToLayer2 interface, which provides level 3 services to level 2.
+     * @param servers The number of servers
+     * @param sendingAheadDelay	{@code double} object that contains the delay introduced when sending a processed users to the next entity.
+     * @param requestDelay	{@code double} object that contains the delay introduced when requesting the next user to the waiting system.
+     * @throws InvalidNameException	An InvalidNameException is raised when an issue concerning the element name occurs.
+     */
+    public MultiServerServiceCenter(final JEQNName name, final JEQNTimeFactory timeFactory, final Layer3ToLayer2Factory factory, final int servers, final double sendingAheadDelay, final double requestDelay) throws InvalidNameException {
+        super(name, timeFactory, factory, timeFactory.makeFrom(sendingAheadDelay), timeFactory.makeFrom(requestDelay));
+
+        init(servers);
+    }
+
+    /**
+     * Creates a new MultiServerServiceCenter with no delays
+     *
+     * @param name Element name. The name is used to identify entities within the simulation model.
+     * @param timeFactory	Instances the jEQN time object that contains the value for the simulation time.
+     * @param factory	According to the Factory pattern, factory is used to instantiates the implementation of Layer3ToLayer2 interface, which provides level 3 services to level 2.
+     * @param servers The number of servers
+     * @throws InvalidNameException	An InvalidNameException is raised when an issue concerning the element name occurs.
+     */
+    public MultiServerServiceCenter(final JEQNName name, final JEQNTimeFactory timeFactory, final Layer3ToLayer2Factory factory, final int servers) throws InvalidNameException {
+        this(name, timeFactory, factory, servers, timeFactory.makeFrom(Time.ZERO), timeFactory.makeFrom(Time.ZERO));
+    }
+
+    // initialization of this component
+    private void init(final int c) {
+        if (c < 1) {
+            throw new IllegalArgumentException("At least one server is required");
+        }
+        servers = c;
+        busyServers = 0;
+
+        idleServers = new int[c];
+        for (int i = 0; i < c; i++) {
+            // server 0 on top of the stack
+            idleServers[i] = c - 1 - i;
+        }
+        serverBusy = new boolean[c];
+
+        departureTimes = new double[c];
+        departureServers = new int[c];
+
+        initStats();
+    }
+
+    private void initStats() {
+        interarrivalTime = new DiscretePopulationMean();
+        serviceTimeMean = new DiscretePopulationMean();
+
+        lastIncomingUserTime = 0.0;
+
+        serverBusyTime = new double[servers];
+        serviceStartTime = new double[servers];
+        serverUsersProcessed = new int[servers];
+
+        busyServersArea = 0.0;
+        lastBusyServersChangeTime = 0.0;
+        maxBusyServers = 0;
+    }
+
+    public void body() throws JEQNException {
+        try {
+            for (int i = 0; i < servers; i++) {
+                requestNextUser();
+            }
+
+            while (true) {
+                if (busyServers == 0) {
+                    incomingUserEventHandler(nextEvent());
+                } else {
+                    unsetEventReceived();
+
+                    double wait = Math.max(0.0, departureTimes[0] - getClock().getValue());
+                    if (holdUnlessIncomingEvent(timeFactory.makeFrom(wait))) {
+                        incomingUserEventHandler(getReceivedEvent());
+                    } else {
+                        completeDepartures();
+                    }
+                }
+            }
+        } catch (TimeAlreadyPassedException ex) {
+            ex.printStackTrace();
+            throw new JEQNTimeException(ex);
+        } catch (UnlinkedPortException ex) {
+            ex.printStackTrace();
+            throw new JEQNConfigurationException(ex);
+        }
+    }
+
+    private void incomingUserEventHandler(final Event event) throws JEQNException {
+        // an incoming user is accepted only if an idle server requested it
+        if (!event.getTag().equals(Events.NEW_INCOMING_USER) || (busyServers == servers)) {
+            throw new JEQNUnexpectedEventReceivedException(event);
+        }
+
+        interarrivalTime.insertNewSample(event.getTime().getValue() - lastIncomingUserTime);
+        lastIncomingUserTime = event.getTime().getValue();
+
+        process((User) event.getData());
+    }
+
+    /*
+     * Assigns the user to an idle server and schedules its departure
+     * @see it.uniroma2.sel.simlab.jeqn.serviceCenters.ServiceCenter#process(it.uniroma2.sel.simlab.jeqn.users.User)
+     */
+    protected void process(final User u) throws JEQNException {
+        double now = getClock().getValue();
+        Time serviceTime = u.getServiceRequest().getValue();
+
+        try {
+            send(nextEntityPort, sendingAheadDelay.increasedBy(serviceTime), Events.NEW_INCOMING_USER, u);
+        } catch (TimeAlreadyPassedException ex) {
+            ex.printStackTrace();
+            throw new JEQNTimeException(ex);
+        } catch (UnlinkedPortException ex) {
+            ex.printStackTrace();
+            throw new JEQNConfigurationException(ex);
+        }
+
+        serviceTimeMean.insertNewSample(serviceTime.getValue());
+
+        updateBusyServersArea(now);
+
+        int server = idleServers[servers - 1 - busyServers];
+        serverBusy[server] = true;
+        busyServers++;
+        if (busyServers > maxBusyServers) {
+            maxBusyServers = busyServers;
+        }
+
+        serviceStartTime[server] = now;
+        addDeparture(now + serviceTime.getValue(), server);
+    }
+
+    /*
+     * releases the servers whose service ends at the current time, and requests a new
+     * user for each of them
+     */
+    private void completeDepartures() throws TimeAlreadyPassedException, UnlinkedPortException {
+        double now = getClock().getValue();
+
+        while ((busyServers > 0) && (departureTimes[0] <= now)) {
+            int server = departureServers[0];
+            removeFirstDeparture();
+
+            updateBusyServersArea(now);
+
+            busyServers--;
+            idleServers[servers - 1 - busyServers] = server;
+            serverBusy[server] = false;
+
+            serverBusyTime[server] += now - serviceStartTime[server];
+            serverUsersProcessed[server]++;
+            usersProcessed++;
+
+            requestNextUser();
+        }
+    }
+
+    private void requestNextUser() throws TimeAlreadyPassedException, UnlinkedPortException {
+        send(requestUsersPort, requestUserDelay, Events.REQUESTED_NEXT_USER, null);
+    }
+
+    private void updateBusyServersArea(final double now) {
+        busyServersArea += busyServers * (now - lastBusyServersChangeTime);
+        lastBusyServersChangeTime = now;
+    }
+
+    // departure heap, holding busyServers entries
+    private void addDeparture(final double t, final int server) {
+        int i = busyServers - 1;
+
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (departureTimes[parent] <= t) {
+                break;
+            }
+            departureTimes[i] = departureTimes[parent];
+            departureServers[i] = departureServers[parent];
+            i = parent;
+        }
+        departureTimes[i] = t;
+        departureServers[i] = server;
+    }
+
+    private void removeFirstDeparture() {
+        int size = busyServers - 1;
+        double t = departureTimes[size];
+        int server = departureServers[size];
+
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if ((child + 1 < size) && (departureTimes[child + 1] < departureTimes[child])) {
+                child++;
+            }
+            if (t <= departureTimes[child]) {
+                break;
+            }
+            departureTimes[i] = departureTimes[child];
+            departureServers[i] = departureServers[child];
+            i = child;
+        }
+        departureTimes[i] = t;
+        departureServers[i] = server;
+    }
+
+    /**
+     * Gets the number of servers
+     * @return The number of servers
+     */
+    public int getServers() {
+        return servers;
+    }
+
+    /**
+     * Gets the number of servers currently busy
+     * @return The number of busy servers
+     */
+    public int getBusyServers() {
+        return busyServers;
+    }
+
+    /**
+     * Gets the utilisation of a server, that is the fraction of time it has been busy
+     * @param server The server index, from 0 to c - 1
+     * @return The server utilisation
+     */
+    public double getServerUtilization(final int server) {
+        double now = getClock().getValue();
+        double busy = serverBusyTime[server];
+
+        if (serverBusy[server]) {
+            busy += now - serviceStartTime[server];
+        }
+        return (now > 0) ? (busy / now) : 0.0;
+    }
+
+    /**
+     * Gets the aggregate utilisation, that is the mean number of busy servers divided by c
+     * @return The aggregate utilisation
+     */
+    public double getUtilization() {
+        double now = getClock().getValue();
+        double area = busyServersArea + busyServers * (now - lastBusyServersChangeTime);
+
+        return (now > 0) ? (area / (now * servers)) : 0.0;
+    }
+
+    public void printStatistics() {
+
+    	if (STATS) {
+
+    		if (usersProcessed > 0) {
+    			System.out.println("### MultiServerServiceCenter " + getEntityName() + "\n");
+    			System.out.println("Servers                             : " + servers);
+    			System.out.println("Users in the center                 : " + busyServers);
+    			System.out.println("Max users in the center             : " + maxBusyServers);
+    			System.out.println("Users processed                     : " + usersProcessed);
+    			System.out.println("Mean interarrival time              : " + interarrivalTime.meanValue());
+    			System.out.println("Variance of mean interarrival time  : " + interarrivalTime.variance());
+    			System.out.println("Mean service time                   : " + serviceTimeMean.meanValue());
+    			System.out.println("Center utilization                  : " + getUtilization());
+    			System.out.println("");
+
+    			for (int i = 0; i < servers; i++) {
+    				System.out.println("Server " + i + " utilization / users processed : " + getServerUtilization(i) + " / " + serverUsersProcessed[i]);
+    			}
+    			System.out.println("=====================================\n\n\n");
+    		}
+    	}
+    }
+}
@@ -30,6 +30,7 @@ import it.uniroma2.sel.simlab.jeqn.general.JEQNName;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
 import it.uniroma2.sel.simlab.jeqn.users.CountingUser;
 import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.users.UserPools;
 import it.uniroma2.sel.simlab.simarch.data.Event;
 import it.uniroma2.sel.simlab.simarch.data.Time;
 import it.uniroma2.sel.simlab.simarch.exceptions.InvalidNameException;
@@ -181,6 +182,7 @@ public class PreEmptiveServiceCenter extends ServiceCenter {
                 fullyProcessedUsers++;
                 reenqueueings.insertNewSample(user.getCounter());
                 send(nextEntityPort, sendingAheadDelay, Events.NEW_INCOMING_USER, user.unWrap());                
+                UserPools.recycle(user);
             }
         } catch (TimeAlreadyPassedException ex) {
             ex.printStackTrace();
@@ -246,4 +248,8 @@ public class PreEmptiveServiceCenter extends ServiceCenter {
     protected void setSendingBackDelay(final Time t) {
         sendingBackDelay = t;
     }
+
+    public Time getLookahead() {
+        return min(super.getLookahead(), sendingBackDelay);
+    }
 }
@@ -150,4 +150,8 @@ public abstract class ServiceCenter extends JEQNElement {
     protected void setUsersProcessed(final int i) {
         usersProcessed = i;
     }
+
+    public Time getLookahead() {
+        return min(sendingAheadDelay, requestUserDelay);
+    }
 }
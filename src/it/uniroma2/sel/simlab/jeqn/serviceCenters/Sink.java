@@ -24,9 +24,11 @@ package it.uniroma2.sel.simlab.jeqn.serviceCenters;
 
 
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNException;
-import it.uniroma2.sel.simlab.jeqn.general.JEQNElement;
+import it.uniroma2.sel.simlab.jeqn.general.EventDrivenJEQNElement;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNName;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
+import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.users.UserPools;
 import it.uniroma2.sel.simlab.simarch.data.Event;
 import it.uniroma2.sel.simlab.simarch.data.Time;
 import it.uniroma2.sel.simlab.simarch.exceptions.InvalidNameException;
@@ -36,11 +38,12 @@ import it.uniroma2.sel.simlab.simcomp.basic.ports.InPort;
 import it.uniroma2.sel.simlab.statistics.estimators.DiscretePopulationMean;
 
 /** Defines the EQN Sink entity. The Sink is classified as Service Center as it can
- * be emulated by a Service Center with infinite service time
+ * be emulated by a Service Center with infinite service time. The Sink is written in
+ * event-driven style, as it only reacts to the incoming users.
  *
  * @author  Daniele Gianni
  */
-public final class Sink extends JEQNElement {
+public final class Sink extends EventDrivenJEQNElement {
 
     // enables the printing and collection of statistics
     private static final Boolean STATS = true;
@@ -73,15 +76,19 @@ public final class Sink extends JEQNElement {
         //interarrivalVariance = new DiscretePopulationVariance();
     }
 
-    public void body() throws JEQNException {
-        Event event;        
-        
-        while (true) {
-            event = nextEvent();                        
-            interarrivalMean.insertNewSample(event.getTime().decreasedBy(lastIncomingUserTime).getValue());
-            //interarrivalVariance.insertNewSample(event.getTime().doubleValue() - lastIncomingUserTime);            
-            lastIncomingUserTime = event.getTime();            
-        }
+    public void onEvent(final Event event) throws JEQNException {
+        interarrivalMean.insertNewSample(event.getTime().decreasedBy(lastIncomingUserTime).getValue());
+        //interarrivalVariance.insertNewSample(event.getTime().doubleValue() - lastIncomingUserTime);            
+        lastIncomingUserTime = event.getTime();            
+
+        // the user leaves the network here
+        UserPools.recycle((User) event.getData());
+    }
+
+    /*
+     * the sink does not schedule any completion
+     */
+    protected void onCompletion(final Object data) {
     }
     
     public InPort getInPort() {
@@ -111,4 +118,11 @@ public final class Sink extends JEQNElement {
     		}
     	}    
     }
+
+    /*
+     * the sink never sends events
+     */
+    public Time getLookahead() {
+        return timeFactory.makeFrom(Double.POSITIVE_INFINITY);
+    }
 }
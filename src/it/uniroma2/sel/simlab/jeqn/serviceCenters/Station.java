@@ -0,0 +1,502 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.serviceCenters;
+
+import it.uniroma2.sel.simlab.jeqn.events.Events;
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNConfigurationException;
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNException;
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNTimeException;
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNUnexpectedEventReceivedException;
+import it.uniroma2.sel.simlab.jeqn.general.EventDrivenJEQNElement;
+import it.uniroma2.sel.simlab.jeqn.general.JEQNName;
+import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
+import it.uniroma2.sel.simlab.jeqn.requests.ServiceRequestGenerator;
+import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserQueue;
+
+import it.uniroma2.sel.simlab.simarch.data.Event;
+import it.uniroma2.sel.simlab.simarch.data.Time;
+import it.uniroma2.sel.simlab.simarch.exceptions.InvalidNameException;
+import it.uniroma2.sel.simlab.simarch.exceptions.layer2.TimeAlreadyPassedException;
+import it.uniroma2.sel.simlab.simarch.exceptions.layer2.UnlinkedPortException;
+import it.uniroma2.sel.simlab.simarch.factories.Layer3ToLayer2Factory;
+
+import it.uniroma2.sel.simlab.simcomp.basic.ports.InPort;
+import it.uniroma2.sel.simlab.simcomp.basic.ports.OutPort;
+
+import it.uniroma2.sel.simlab.statistics.estimators.ContinuousPopulationMean;
+import it.uniroma2.sel.simlab.statistics.estimators.DiscretePopulationMean;
+
+/** Implements an EQN station, that is a non-preemptive Waiting System and its Service
+ * Center fused in a single element. The station owns the user queue and the server,
+ * so that the next user is taken from the queue as soon as a service completes,
+ * without the {@code REQUESTED_NEXT_USER} / {@code NEW_INCOMING_USER} exchange needed
+ * by a {@code NonPreemptiveWaitingSystem} connected to a {@code NonPreemptiveServiceCenter}.
+ * The station collects the statistics of both elements.
+ *
+ * @author Daniele Gianni
+ */
+public class Station extends EventDrivenJEQNElement {
+
+    //enables the printing and collecting of statistics
+    private static final Boolean STATS = true;
+
+    /*
+     * port for the reception of incoming users
+     */
+    protected InPort incomingUsersPort;
+
+    /*
+     * port to forward the user to the cascade entity
+     */
+    protected OutPort nextEntityPort;
+
+    /*
+     * delay introduced when sending fully processed users to the cascade entity
+     */
+    protected Time sendingAheadDelay;
+
+    /*
+     * the service request generator
+     */
+    protected ServiceRequestGenerator resourceRequestGenerator;
+
+    /*
+     * the data structure that store the waiting users
+     */
+    protected UserQueue userQueue;
+
+    /*
+     * true while a user is being served
+     */
+    protected boolean userInProcessing;
+
+    // statistics of the waiting part
+    /*
+     * the current user queue length
+     */
+    protected ContinuousPopulationMean meanQueueLength;
+
+    /*
+     * the current user waiting time
+     */
+    protected DiscretePopulationMean meanWaitingTime;
+
+    /*
+     * the interarrival time experienced by the station
+     */
+    protected DiscretePopulationMean interarrivalTime;
+
+    /*
+     * the longest queue length experienced
+     */
+    protected long maxQueueLength;
+
+    /*
+     * the time it received the last user
+     */
+    protected double lastUserComingInTime;
+
+    /*
+     * the time it had a user coming in or going out of the queue
+     */
+    protected double lastUserMovementTime;
+
+    // statistics of the serving part
+    /*
+     * users entirely processed
+     */
+    protected int usersProcessed;
+
+    /*
+     * interarrival times of the users to the server
+     */
+    protected DiscretePopulationMean serviceInterarrivalTime;
+
+    /*
+     * the time the last user entered the server
+     */
+    protected double lastServiceStartTime;
+
+    /*
+     * user service times
+     */
+    protected DiscretePopulationMean serviceTimeMean;
+
+    /*
+     * average length of busy cycles
+     */
+    protected DiscretePopulationMean busyCycleTimeMean;
+
+    /*
+     * number of users processed within a busy cycle
+     */
+    protected DiscretePopulationMean usersPerBusyCycleMean;
+
+    /*
+     * average length of idle cycles
+     */
+    protected DiscretePopulationMean idleCycleTimeMean;
+
+    /*
+     * total busy time, in completed busy cycles
+     */
+    protected double busyTime;
+
+    /*
+     * total idle time, in completed idle cycles
+     */
+    protected double idleTime;
+
+    /*
+     * start time of the current busy cycle
+     */
+    protected double busyCycleStartTime;
+
+    /*
+     * start time of the current idle cycle, which coincides with the end time of last busy cycle
+     */
+    protected double idleCycleStartTime;
+
+    /*
+     * number of users processed in the current busy cycle
+     */
+    protected int usersInCurrentBusyCycle;
+
+    /*
+     * number of users in the completed busy cycles
+     */
+    protected int usersInSample;
+
+    /**
+     * Creates a new Station
+     *
+     * @param name Element name. The name is used to identify entities within the simulation model.
+     * @param timeFactory	Instances the jEQN time object that contains the value for the simulation time.
+     * @param factory	According to the Factory pattern, factory is used to instantiates the implementation of Layer3ToLayer2 interface, which provides level 3 services to level 2.
+     * @param userQueue The actual user queue data structure
+     * @param requestGenerator The generator of the service requests
+     * @param sendingAheadDelay	{@code Time} object that contains the delay introduced when sending a processed users to the next entity.
+     * @throws InvalidNameException	An InvalidNameException is raised when an issue concerning the element name occurs.
+     */
+    public Station(final JEQNName name, final JEQNTimeFactory timeFactory, final Layer3ToLayer2Factory factory, final UserQueue userQueue, final ServiceRequestGenerator requestGenerator, final Time sendingAheadDelay) throws InvalidNameException {
+        super(name, timeFactory, factory);
+
+        setIncomingUsersPort(new InPort(new JEQNName(ServiceCenter.INCOMING_USERS_PORT_NAME), this));
+        setNextEntityPort(new OutPort(new JEQNName(ServiceCenter.NEXT_ENTITY_PORT_NAME), this));
+
+        setUserQueue(userQueue);
+        setResourceRequestGenerator(requestGenerator);
+        setSendingAheadDelay(sendingAheadDelay);
+
+        init();
+    }
+
+    /**
+     * Creates a new Station with the delay specified as a {@code double}
+     *
+     * @param name Element name. The name is used to identify entities within the simulation model.
+     * @param timeFactory	Instances the jEQN time object that contains the value for the simulation time.
+     * @param factory	According to the Factory pattern, factory is used to instantiates the implementation of Layer3ToLayer2 interface, which provides level 3 services to level 2.
+     * @param userQueue The actual user queue data structure
+     * @param requestGenerator The generator of the service requests
+     * @param sendingAheadDelay	{@code double} object that contains the delay introduced when sending a processed users to the next entity.
+     * @throws InvalidNameException	An InvalidNameException is raised when an issue concerning the element name occurs.
+     */
+    public Station(final JEQNName name, final JEQNTimeFactory timeFactory, final Layer3ToLayer2Factory factory, final UserQueue userQueue, final ServiceRequestGenerator requestGenerator, final double sendingAheadDelay) throws InvalidNameException {
+        this(name, timeFactory, factory, userQueue, requestGenerator, timeFactory.makeFrom(sendingAheadDelay));
+    }
+
+    // initialization of this component
+    private void init() {
+        userQueue.setLayer3ToLayer2(executionContainer);
+
+        userInProcessing = false;
+
+        initStats();
+    }
+
+    private void initStats() {
+        meanQueueLength = new ContinuousPopulationMean();
+        meanWaitingTime = new DiscretePopulationMean();
+        interarrivalTime = new DiscretePopulationMean();
+        maxQueueLength = 0;
+        lastUserComingInTime = 0.0;
+        lastUserMovementTime = 0.0;
+
+        usersProcessed = 0;
+        serviceInterarrivalTime = new DiscretePopulationMean();
+        lastServiceStartTime = 0.0;
+        serviceTimeMean = new DiscretePopulationMean();
+
+        busyCycleTimeMean = new DiscretePopulationMean();
+        usersPerBusyCycleMean = new DiscretePopulationMean();
+        idleCycleTimeMean = new DiscretePopulationMean();
+
+        busyTime = 0.0;
+        idleTime = 0.0;
+        busyCycleStartTime = 0.0;
+        idleCycleStartTime = 0.0;
+        usersInCurrentBusyCycle = 0;
+        usersInSample = 0;
+    }
+
+    /**
+     * Handles the incoming users
+     */
+    public void onEvent(final Event event) throws JEQNException {
+        if (!event.getTag().equals(Events.NEW_INCOMING_USER)) {
+            throw new JEQNUnexpectedEventReceivedException(event);
+        }
+
+        double now = event.getTime().getValue();
+
+        interarrivalTime.insertNewSample(now - lastUserComingInTime);
+        lastUserComingInTime = now;
+
+        User u = (User) event.getData();
+        u.setInComingTime(now);
+        resourceRequestGenerator.assignResourceRequest(u);
+
+        if (userInProcessing) {
+            User dropped = userQueue.offer(u);
+            if (dropped != null) {
+                overflownUserHandler(dropped);
+            }
+
+            meanQueueLength.insertNewSample(userQueue.getEnqueuedUsers() - 1, now - lastUserMovementTime);
+            if (maxQueueLength < userQueue.getEnqueuedUsers()) {
+                maxQueueLength = userQueue.getEnqueuedUsers();
+            }
+        } else {
+            // the server is idle, hence the queue is empty
+            meanQueueLength.insertNewSample(0, now - lastUserMovementTime);
+            meanWaitingTime.insertNewSample(0.0);
+
+            endIdleCycle(now);
+            serve(u, timeFactory.makeFrom(Time.ZERO));
+        }
+
+        lastUserMovementTime = now;
+    }
+
+    /**
+     * Handles the completion of a service
+     */
+    protected void onCompletion(final Object data) throws JEQNException {
+        User u = (User) data;
+        double now = getClock().getValue();
+
+        usersProcessed++;
+        serviceTimeMean.insertNewSample(u.getServiceRequest().getValue().getValue());
+
+        if (userQueue.getEnqueuedUsers() > 0) {
+            Time extractingTime = userQueue.nextUserExtractingTime();
+            meanQueueLength.insertNewSample(userQueue.getEnqueuedUsers(), now - lastUserMovementTime);
+
+            User next = userQueue.extract();
+
+            lastUserMovementTime = now;
+            meanWaitingTime.insertNewSample(now - next.getInComingTime());
+
+            serve(next, extractingTime);
+        } else {
+            userInProcessing = false;
+            idleCycleStartTime = now;
+        }
+    }
+
+    /*
+     * starts the service of a user, after the given queue extracting time
+     */
+    private void serve(final User u, final Time extractingTime) throws JEQNException {
+        double now = getClock().getValue();
+
+        serviceInterarrivalTime.insertNewSample(now - lastServiceStartTime);
+        lastServiceStartTime = now;
+
+        userInProcessing = true;
+        usersInCurrentBusyCycle++;
+
+        Time serviceTime = extractingTime.increasedBy(u.getServiceRequest().getValue());
+
+        try {
+            send(nextEntityPort, sendingAheadDelay.increasedBy(serviceTime), Events.NEW_INCOMING_USER, u);
+        } catch (TimeAlreadyPassedException ex) {
+            ex.printStackTrace();
+            throw new JEQNTimeException(ex);
+        } catch (UnlinkedPortException ex) {
+            ex.printStackTrace();
+            throw new JEQNConfigurationException(ex);
+        }
+
+        scheduleCompletion(serviceTime, u);
+    }
+
+    /*
+     * closes the current idle cycle and the previous busy cycle, unless the server
+     * becomes busy again at the same instant it became idle
+     */
+    private void endIdleCycle(final double now) {
+        if (now == idleCycleStartTime) {
+            return;
+        }
+
+        double idleCycle = now - idleCycleStartTime;
+        idleTime += idleCycle;
+        idleCycleTimeMean.insertNewSample(idleCycle);
+
+        if (usersInCurrentBusyCycle > 0) {
+            closeBusyCycle(idleCycleStartTime);
+        }
+
+        busyCycleStartTime = now;
+    }
+
+    private void closeBusyCycle(final double end) {
+        double busyCycle = end - busyCycleStartTime;
+        busyTime += busyCycle;
+        busyCycleTimeMean.insertNewSample(busyCycle);
+
+        usersInSample += usersInCurrentBusyCycle;
+        usersPerBusyCycleMean.insertNewSample((double) usersInCurrentBusyCycle);
+
+        usersInCurrentBusyCycle = 0;
+    }
+
+    /**
+     * Handles the users dropped by the user queue, either the incoming user or the one
+     * dropped to make room for it
+     * @param u The user
+     */
+    protected void overflownUserHandler(final User u) {
+    }
+
+    public void printStatistics() {
+
+    	if (STATS) {
+
+    		if (interarrivalTime.sampleSize() > 0) {
+    			System.out.println("### Station " + getEntityName() + "\n");
+
+    			System.out.println("Max Users in the waiting system     : " + maxQueueLength);
+    			System.out.println("Mean Users in the waiting system    : " + meanQueueLength.meanValue());
+    			System.out.println("Mean Waiting Time                   : " + meanWaitingTime.meanValue());
+    			System.out.println("Variance of Mean Waiting Time       : " + meanWaitingTime.variance());
+    			System.out.println("Mean Interarrival Time              : " + interarrivalTime.meanValue());
+    			System.out.println("Variance of Interarrival Time       : " + interarrivalTime.variance());
+    			System.out.println("Sample size                         : " + meanWaitingTime.sampleSize());
+    			System.out.println("Number of users still in the system : " + userQueue.getEnqueuedUsers());
+    			System.out.println("\nUsersQueue Stat info :\n" + userQueue.getStatInfo());
+    			System.out.println("");
+    		}
+
+    		if (usersProcessed > 0) {
+    			double now = getClock().getValue();
+
+    			double exIdleTime = idleTime;
+    			double exBusyTime = busyTime;
+
+    			double totalBusyTime = busyTime;
+    			double totalIdleTime = idleTime;
+
+    			if (userInProcessing) {
+    				// the current busy cycle is not complete
+    				totalBusyTime += now - busyCycleStartTime;
+    			} else {
+    				totalBusyTime += idleCycleStartTime - busyCycleStartTime;
+    				totalIdleTime += now - idleCycleStartTime;
+    			}
+
+    			System.out.println("Observation interval                : [ 0 ; " + (exIdleTime + exBusyTime) + " ] ");
+    			System.out.println("Users in the center                 : " + (userInProcessing? 1: 0));
+    			System.out.println("Users processed                     : " + usersProcessed);
+    			System.out.println("Mean interarrival time              : " + serviceInterarrivalTime.meanValue());
+    			System.out.println("Variance of mean interarrival time  : " + serviceInterarrivalTime.variance());
+    			System.out.println("Center utilization                  : " + (totalBusyTime / (totalBusyTime + totalIdleTime)));
+    			System.out.println("Mean service time                   : " + serviceTimeMean.meanValue());
+
+    			System.out.println("");
+
+    			System.out.println("Total Busy Time                                 : " + totalBusyTime);
+    			System.out.println("Busy Time in Busy Cycles                        : " + exBusyTime);
+    			System.out.println("Sampling Busy Cycle Mean Time                   : " + busyCycleTimeMean.meanValue());
+    			System.out.println("Variance of Sampling Busy Cycle Mean Time       : " + busyCycleTimeMean.variance());
+    			System.out.println("Confidence interval a = 0.9                     : " + busyCycleTimeMean.confidenceInterval(0.9));
+    			System.out.println("Number of Busy Cycle                            : " + busyCycleTimeMean.sampleSize());
+    			System.out.println("User in the sample                              : " + usersInSample);
+    			System.out.println("Average users per busy cycle                    : " + usersPerBusyCycleMean.meanValue());
+
+    			System.out.println("");
+    			System.out.println("Total Idle Time                                 : " + totalIdleTime);
+    			System.out.println("Idle Time in Idle Cycles                        : " + exIdleTime);
+    			System.out.println("Sampling Idle Cycle Mean Time                   : " + idleCycleTimeMean.meanValue());
+    			System.out.println("Variance of Sampling Idle Cycle Mean Time       : " + idleCycleTimeMean.variance());
+    			System.out.println("Confidence interval a = 0.9                     : " + idleCycleTimeMean.confidenceInterval(0.9));
+    			System.out.println("Number of Idle Cycle                            : " + idleCycleTimeMean.sampleSize());
+    		}
+
+    		System.out.println("=====================================\n\n\n");
+    	}
+    }
+
+    public InPort getIncomingUsersPort() {
+        return incomingUsersPort;
+    }
+
+    public OutPort getNextEntityPort() {
+        return nextEntityPort;
+    }
+
+    public Time getSendingAheadDelay() {
+        return sendingAheadDelay;
+    }
+
+    public UserQueue getUserQueue() {
+        return userQueue;
+    }
+
+    public Time getLookahead() {
+        return sendingAheadDelay;
+    }
+
+    protected void setIncomingUsersPort(final InPort p) {
+        incomingUsersPort = p;
+    }
+
+    protected void setNextEntityPort(final OutPort p) {
+        nextEntityPort = p;
+    }
+
+    protected void setResourceRequestGenerator(final ServiceRequestGenerator r) {
+        resourceRequestGenerator = r;
+    }
+
+    protected void setSendingAheadDelay(final Time t) {
+        sendingAheadDelay = t;
+    }
+
+    protected void setUserQueue(final UserQueue u) {
+        userQueue = u;
+    }
+}
@@ -30,6 +30,8 @@ import it.uniroma2.sel.simlab.jeqn.general.JEQNElement;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNName;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
 
+import it.uniroma2.sel.simlab.jeqn.policies.BooleanPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.BooleanPolicyAdapter;
 import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskImplicitPolicy;
 import it.uniroma2.sel.simlab.jeqn.users.User;
 import it.uniroma2.sel.simlab.jeqn.users.UserGenerator;
@@ -67,6 +69,11 @@ public class Source extends JEQNElement {
      */
     protected MaskImplicitPolicy<?, ?, Boolean> terminationPolicy;
 
+    /*
+     * the termination policy called with a primitive decision
+     */
+    protected BooleanPolicy<Object> booleanTerminationPolicy;
+
     /*
      * the numerical stream that specifies the inter-generation times between two users
      */
@@ -119,7 +126,7 @@ public class Source extends JEQNElement {
     public void body() throws JEQNException {                        
         Time nextUserBornTime;                               
         
-        while (terminationPolicy.getDecision().booleanValue()) {                
+        while (booleanTerminationPolicy.getBooleanDecisionFor(null)) {                
             try {
                 nextUserBornTime = timeFactory.makeFrom(interarrivalTime.getNext());
 
@@ -176,6 +183,7 @@ public class Source extends JEQNElement {
     
     private void setTerminationPolicy(MaskImplicitPolicy<?, ?, Boolean> p) {
         terminationPolicy = p;
+        booleanTerminationPolicy = BooleanPolicyAdapter.adapt(p);
     }
     
     
@@ -22,15 +22,20 @@
 
 package it.uniroma2.sel.simlab.jeqn.sources.policies;
 
+import it.uniroma2.sel.simlab.jeqn.policies.BooleanPolicy;
 import it.uniroma2.sel.simlab.jeqn.policies.ImplicitButNotEsplicitMaskingStateOnlyDependentPolicy;
 
 /** Implements the user termination policy according to which the user generation terminates as a fixed number of 
- *  of users has been generated. This policy is applicable to a {@code Source} node.
+ *  of users has been generated. This policy is applicable to a {@code Source} node. The counter is
+ *  kept as a primitive, and exposed as the policy state.
  *
  *	@see it.uniroma2.sel.simlab.jeqn.sources.Source
  * @author Daniele Gianni
  */
-public class FiniteSourceTerminationPolicy extends ImplicitButNotEsplicitMaskingStateOnlyDependentPolicy<Integer, Boolean> {    
+public class FiniteSourceTerminationPolicy extends ImplicitButNotEsplicitMaskingStateOnlyDependentPolicy<Integer, Boolean> implements BooleanPolicy<Object> {    
+
+    // number of users still to be generated - not initialized here, as set by the super constructor
+    private int remainingUsers;
     
     /** 
      * Creates a new FiniteSourceTerminationPolicy with the specified threshold
@@ -46,9 +51,24 @@ public class FiniteSourceTerminationPolicy extends ImplicitButNotEsplicitMasking
      */
      
     public Boolean getDecision() {
-    	boolean decision = (getState().compareTo(0) > 0);
-        setState(getState().intValue() - 1);        
-        return decision;
+        return Boolean.valueOf(getBooleanDecisionFor(null));
+    }
+
+    /**
+     * Returns the decision of this policy, and counts the user to be generated
+     * @param o Not applicable
+     * @return {@code true} if the user generation has to go on
+     */
+    public boolean getBooleanDecisionFor(final Object o) {
+        return (remainingUsers-- > 0);
+    }
+
+    public Integer getState() {
+        return remainingUsers;
+    }
+
+    public void setState(final Integer i) {
+        remainingUsers = i;
     }
     
     /**
@@ -152,4 +152,8 @@ public class AllocateNode extends PassiveQueueInNode {
     public void setUserRequestPort(final OutPort p) {
         userRequestPort = p;
     }
+
+    public Time getLookahead() {
+        return min(super.getLookahead(), userRequestDelay);
+    }
 }
@@ -31,6 +31,7 @@ import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
 import it.uniroma2.sel.simlab.jeqn.tokens.Token;
 import it.uniroma2.sel.simlab.jeqn.tokens.TokenFactory;
 import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.users.UserPools;
 import it.uniroma2.sel.simlab.jeqn.users.UserWithTokens;
 import it.uniroma2.sel.simlab.simarch.exceptions.InvalidNameException;
 import it.uniroma2.sel.simlab.simarch.exceptions.layer2.TimeAlreadyPassedException;
@@ -127,6 +128,7 @@ public class AllocateReleasePoolOfTokens extends PoolOfTokens {
             try {
                 // acknowledge token release
                 send(outTokenReleasePort, tokenReleaseEventAckDelay, Events.TOKEN_RELEASED, ut.unWrap());
+                UserPools.recycle(ut);
             } catch (TimeAlreadyPassedException ex) {
                 ex.printStackTrace();
                 throw new JEQNTimeException(ex);
@@ -144,6 +146,7 @@ public class AllocateReleasePoolOfTokens extends PoolOfTokens {
                 send(outTokenRequestPort, tokenAllocateEventAckDelay, Events.TOKEN_ALLOCATED, uut);
                 // acknowledge token release
                 send(outTokenReleasePort, tokenReleaseEventAckDelay, Events.TOKEN_RELEASED, ut.unWrap());
+                UserPools.recycle(ut);
             } catch (TimeAlreadyPassedException ex) {
                 ex.printStackTrace();
                 throw new JEQNTimeException(ex);
@@ -31,6 +31,7 @@ import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
 import it.uniroma2.sel.simlab.jeqn.tokens.Token;
 import it.uniroma2.sel.simlab.jeqn.tokens.TokenFactory;
 import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.users.UserPools;
 import it.uniroma2.sel.simlab.jeqn.users.UserWithTokens;
 import it.uniroma2.sel.simlab.simarch.exceptions.InvalidNameException;
 import it.uniroma2.sel.simlab.simarch.exceptions.layer2.TimeAlreadyPassedException;
@@ -92,6 +93,7 @@ public class CreateDestroyPoolOfTokens extends PoolOfTokens {
         try {
             // acknowledge the destruction of a token
             send(outTokenReleasePort, tokenDestroyEventAckDelay, Events.TOKEN_DESTROYED, ut.unWrap());
+            UserPools.recycle(ut);
         } catch (TimeAlreadyPassedException ex) {
             ex.printStackTrace();
             throw new JEQNTimeException(ex);
@@ -28,6 +28,8 @@ import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNTimeException;
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNUnexpectedEventReceivedException;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNName;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
+import it.uniroma2.sel.simlab.jeqn.policies.IntPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.IntPolicyAdapter;
 import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
 import it.uniroma2.sel.simlab.jeqn.users.DadUser;
 import it.uniroma2.sel.simlab.jeqn.users.SonUser;
@@ -69,6 +71,11 @@ public class ForkNode extends SpecialNode {
      * the policy determining how many child users have to be generated for each incoming user
      */
     protected MaskBasePolicy<?, User, ?, Integer> forkPolicy;
+
+    /*
+     * the fork policy called with a primitive decision
+     */
+    protected IntPolicy<User> intForkPolicy;
     //protected MaskBasePolicy<?, ?, DecisionData, Integer> forkPolicy;
 
     /*
@@ -123,7 +130,7 @@ public class ForkNode extends SpecialNode {
                 
                 if (event.getTag().equals(Events.NEW_INCOMING_USER)) {                    
                                     
-                    int numberOfSons = forkPolicy.getDecisionFor((User) event.getData()).intValue();
+                    int numberOfSons = intForkPolicy.getIntDecisionFor((User) event.getData());
 
                     // wrap incoming user in a dad user
                     DadUser dadUser = DadUser.wrap((User) event.getData());
@@ -153,6 +160,7 @@ public class ForkNode extends SpecialNode {
         
     private void setForkPolicy(final MaskBasePolicy<?, User, ?, Integer> p) {
         forkPolicy = p;
+        intForkPolicy = IntPolicyAdapter.adapt(p);
     }
     
     private void setSonUserGenerator(final SonUserGenerator g) {
@@ -27,126 +27,115 @@ import it.uniroma2.sel.simlab.jeqn.events.Events;
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNException;
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNTimeException;
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNUnexpectedEventReceivedException;
+import it.uniroma2.sel.simlab.jeqn.dataStructures.TimingWheel;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNName;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
 import it.uniroma2.sel.simlab.jeqn.users.DadUser;
+import it.uniroma2.sel.simlab.jeqn.users.Family;
 import it.uniroma2.sel.simlab.jeqn.users.SonUser;
 import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.users.UserPools;
 import it.uniroma2.sel.simlab.simarch.data.Event;
 import it.uniroma2.sel.simlab.simarch.exceptions.InvalidNameException;
 import it.uniroma2.sel.simlab.simarch.exceptions.layer2.TimeAlreadyPassedException;
 import it.uniroma2.sel.simlab.simarch.exceptions.layer2.UnlinkedPortException;
 import it.uniroma2.sel.simlab.simarch.factories.Layer3ToLayer2Factory;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 /** Implements the Join Node simulation entity. This entity synchronizes the incoming dad and son users.
  * Specifically, it reduces the dad user to a normal user upon reception of the dad user and of all the
- * son users.
+ * son users. The join state of each family is kept in the Family record shared by the dad and its
+ * sons, so that each arrival is processed in constant time. Optionally the dad is released upon
+ * reception of a quorum of its sons, and the join stops waiting for the sons after a timeout; the
+ * sons arriving later are discarded. Once the dad has been released and all the sons have arrived,
+ * the family wrappers are given back to the user pools.
  *
  * @author Daniele Gianni
  */
 public class JoinNode extends SpecialNode {
 
-    // counter of son users received for each received dad user
-    private Map<DadUser, Integer> sonCounter;
-
-    // record of the dad users received - the map value is true if a dad user is received (indipendently
-    // from the son users received. The map value is false is son users are received an no dad is received
-    private Map<DadUser, Boolean> dadsReceived;
+    // default number of ticks of the timing wheel of the join timeouts
+    private static final int DEFAULT_TICKS_PER_WHEEL = 64;
 
     // temp field!
     private int deliveredUsers = 0;
+
+    // number of sons required to release a dad, 0 for all the sons
+    private int quorum;
+
+    // time the join waits for the members of a family since its first arrival, 0 for no timeout
+    private double joinTimeout;
+
+    // pending join timeouts, null if no timeout is set
+    private TimingWheel<Family> familyTimeouts;
+
+    // families whose timeout has just expired
+    private List<Family> expiredFamilies;
+
+    // sons arrived after the release or the timeout of their family
+    private int discardedSons;
+
+    // families whose timeout expired before the join
+    private int timedOutFamilies;
     
     /** Creates a new instance of JoinNode */
     public JoinNode(final JEQNName name, final JEQNTimeFactory timeFactory, final Layer3ToLayer2Factory layer2factory, final double userForwardDelay) throws InvalidNameException {
         super(name, timeFactory, layer2factory, userForwardDelay);
-        
-        setSonCounter(new HashMap<DadUser, Integer>());
-        setDadsReceived(new HashMap<DadUser, Boolean>());
+
+        init();
     }
+
+    /**
+     * Creates a new instance of JoinNode releasing each dad upon reception of the dad and of
+     * {@code quorum} of its sons, the later sons being discarded
+     * @param name Element name
+     * @param timeFactory Instances the jEQN time object
+     * @param layer2factory Factory of the underlying layer
+     * @param userForwardDelay The delay introduced to send a joined user to the next entity
+     * @param quorum The number of sons required to release a dad, 0 for all the sons
+     * @throws InvalidNameException An InvalidNameException is raised when an issue concerning the element name occurs.
+     */
+    public JoinNode(final JEQNName name, final JEQNTimeFactory timeFactory, final Layer3ToLayer2Factory layer2factory, final double userForwardDelay, final int quorum) throws InvalidNameException {
+        this(name, timeFactory, layer2factory, userForwardDelay);
+
+        setQuorum(quorum);
+    }
+
+    // init methods
+
+    private void init() {
+        setQuorum(0);
+
+        expiredFamilies = new ArrayList<Family>();
+
+        initStats();
+    }
+
+    private void initStats() {
+        discardedSons = 0;
+        timedOutFamilies = 0;
+    }
+
+    // core methods
     
     public void body() throws JEQNException {
         
-        Event event;
-        
         try {
             while (true) {
-                
-                event = nextEvent();
-                
-                if (event.getTag().equals(Events.NEW_INCOMING_USER)) {
-                    // incoming user
-
-                    User user = (User) event.getData();                    
-                    //System.out.println("User name : " + user.getName()); // + "      System clock : " + getClock().getValue());
-                    
-                    if (isADadUser(user)) { // dad user received
-                        assert dadsReceived.containsKey(user) : "Inconsistent state in Join Node: just-got-in DadUser already in DadsReceived list";
-                        
-                        DadUser dad = (DadUser) user;
-                        dadsReceived.put(dad, new Boolean(true));                        
-                                                
-                        if (dad.getNumberOfSons() == 0) {                            
-                            //This dad has no sons
-                            send(outPort, userForwardDelay, Events.NEW_INCOMING_USER, dad.unwrap());                              
-                            dadsReceived.remove(dad);
-                            deliveredUsers++;                            
-                        } else {                            
-                            if (!sonCounter.containsKey(dad)) { // no sons arrived yet
-                                sonCounter.put(dad, 0);
-                                //Dad received! But no sons yet                                                              
-                                
-                            } else { // at least one son arrived
-                                int sonsAlreadyArrived = sonCounter.get(dad);
-                                
-                                assert (sonsAlreadyArrived <= dad.getNumberOfSons()) : "Inconsistent State in JoinNode : number of received sons exceeds the one expected from dad's number of sons field";
-                                                                
-                                if (sonsAlreadyArrived == dad.getNumberOfSons()) {
-                                    dadsReceived.remove(dad);
-                                    sonCounter.remove(dad);
-                                    
-                                    send(outPort, userForwardDelay, Events.NEW_INCOMING_USER, dad.unwrap());                                    
-                                    
-                                    deliveredUsers++;
-                                }
-                            }
-                        }
-                    } else { // son user received                        
-                        assert isASonUser(user) : "Unexpected User Class received at JoinNode: neither DadUser nor SonUser";
-                        
-                        DadUser dad = ((SonUser) user).getDad();
-                        
-                        if (sonCounter.containsKey(dad)) { // at least on sibling arrived
-                            //One sibling arrived earlier that dad user
-                            int counter = sonCounter.remove(dad).intValue() + 1;                            
-                            sonCounter.put(dad, counter);
-                            
-                            assert (counter <= dad.getNumberOfSons()) : "Inconsisten State in JoinNode: unarrived dad has more sons than expected";
-                                                        
-                            if (dadsReceived.containsKey(dad)) { // dad arrived                                                                                                
-                                if (dad.getNumberOfSons() == counter) { // all sibling arrived
-                                    dadsReceived.remove(dad);
-                                    sonCounter.remove(dad);                                                                        
-                                    //Son received!!!! All siblings received too!!!! ---> Sending it ahead!!!");
-                                    
-                                    deliveredUsers++;
-                                    send(outPort, getUserForwardDelay(), Events.NEW_INCOMING_USER, dad.unwrap());
-                                    
-                                } else { // missing at least one sibling AND dad arrived
-                                    //System.out.println("Son received!!!! Dad arrived but some sibling are still missing");                                    
-                                    //sonCounter.put(dad, counter);
-                                }
-                            } else { // dad not arrived yet
-                                //sonCounter.put(dad, counter);                                
-                                //System.out.println("Son received but not yet its dad!!!");
-                            }
-                        } else { // first son of the family                            
-                            //System.out.println("First son of the family received!!!");                            
-                            sonCounter.put(dad, 1);
-                        }
+                if ((familyTimeouts == null) || familyTimeouts.isEmpty()) {
+                    incomingUserEventHandler(nextEvent());
+                } else {
+                    unsetEventReceived();
+
+                    double wakeUpTime = familyTimeouts.nextExpirationTime();
+                    double wait = Math.max(0.0, wakeUpTime - getClock().getValue());
+                    if (holdUnlessIncomingEvent(timeFactory.makeFrom(wait))) {
+                        incomingUserEventHandler((Event) getReceivedEvent());
+                    } else {
+                        expireFamilies(Math.max(wakeUpTime, getClock().getValue()));
                     }
-                } else throw new JEQNUnexpectedEventReceivedException(event);
+                }
             }
         } catch (TimeAlreadyPassedException ex) {
             ex.printStackTrace();
@@ -156,28 +145,183 @@ public class JoinNode extends SpecialNode {
             throw new JEQNConfigurationError(ex);
         }
     }
+
+    private void incomingUserEventHandler(final Event event) throws JEQNException, TimeAlreadyPassedException, UnlinkedPortException {
+        if (!event.getTag().equals(Events.NEW_INCOMING_USER)) {
+            throw new JEQNUnexpectedEventReceivedException(event);
+        }
+
+        User user = (User) event.getData();
+        //System.out.println("User name : " + user.getName()); // + "      System clock : " + getClock().getValue());
+
+        assert (isADadUser(user) || isASonUser(user)) : "Unexpected User Class received at JoinNode: neither DadUser nor SonUser";
+
+        // the dad and the sons share the same family record
+        Family family = isADadUser(user) ? ((DadUser) user).getFamily() : ((SonUser) user).getFamily();
+
+        if (isADadUser(user)) {
+            family.dadArrived();
+        } else if (family.isReleased() || family.isTimedOut()) {
+            // the join no longer waits for this son
+            family.sonDiscarded();
+            discardedSons++;
+
+            recycleIfComplete(family);
+            return;
+        } else {
+            family.sonArrived();
+        }
+
+        if ((familyTimeouts != null) && (family.getTimeout() == null) && !family.isTimedOut()) {
+            // first arrival of the family
+            family.setTimeout(familyTimeouts.schedule(family, getClock().getValue() + joinTimeout));
+        }
+
+        releaseIfJoined(family);
+        recycleIfComplete(family);
+    }
+
+    /*
+     * Stops waiting for the sons of the families whose timeout has expired, releasing the dads
+     * already arrived
+     */
+    private void expireFamilies(final double now) throws TimeAlreadyPassedException, UnlinkedPortException {
+        familyTimeouts.advanceTo(now, expiredFamilies);
+
+        for (int i = 0; i < expiredFamilies.size(); i++) {
+            Family family = expiredFamilies.get(i);
+
+            family.timeOut();
+            timedOutFamilies++;
+
+            releaseIfJoined(family);
+            recycleIfComplete(family);
+        }
+        expiredFamilies.clear();
+    }
+
+    private void releaseIfJoined(final Family family) throws TimeAlreadyPassedException, UnlinkedPortException {
+        if (family.isJoined(getRequiredSons(family.getDad()))) {
+            family.release();
+
+            if (family.getTimeout() != null) {
+                familyTimeouts.cancel(family.getTimeout());
+                family.setTimeout(null);
+            }
+
+            deliveredUsers++;
+            send(outPort, getUserForwardDelay(), Events.NEW_INCOMING_USER, family.getDad().unwrap());
+        }
+    }
+
+    /*
+     * Gives the dad and the sons back to their pools once no member of the family is still
+     * in the network
+     */
+    private void recycleIfComplete(final Family family) {
+        if (family.isComplete()) {
+            DadUser dad = family.getDad();
+
+            for (SonUser son : dad.getSons()) {
+                UserPools.recycle(son);
+            }
+            UserPools.recycle(dad);
+        }
+    }
+
+    /**
+     * Gets the number of sons required to release the dad
+     * @param dad The dad user
+     * @return The quorum, if set and not greater than the number of sons, otherwise the number of sons
+     */
+    protected int getRequiredSons(final DadUser dad) {
+        return (quorum > 0) ? Math.min(quorum, dad.getNumberOfSons()) : dad.getNumberOfSons();
+    }
     
-    // VERY SPECIFIC IMPLEMENTATION DOES NOT WORK WITH DadUser SUBCLASSES!!!!!
     protected boolean isADadUser(final User u) {
-        return u.getClass().getName().contains("DadUser");
+        return (u instanceof DadUser);
     }
     
     protected boolean isASonUser(final User u) {
-        return u.getClass().getName().contains("SonUser");
+        return (u instanceof SonUser);
     }
     
     public void printStatistics() {
         //System.out.println("No stats available for Join Node");
         
         System.out.println("Delivered : " + this.deliveredUsers);
+        System.out.println("Discarded sons : " + discardedSons);
+        System.out.println("Timed out families : " + timedOutFamilies);
     }
-    
-    private void setSonCounter(Map<DadUser, Integer> m) {
-        sonCounter = m;
+
+    // accessor methods
+
+    /**
+     * Accessor method for property
+     * @return The number of sons required to release a dad, 0 for all the sons
+     */
+    public int getQuorum() {
+        return quorum;
     }
-    
-    private void setDadsReceived(Map<DadUser, Boolean> m) {
-        dadsReceived = m;
+
+    /**
+     * Accessor method for property
+     * @param k The number of sons required to release a dad, 0 for all the sons
+     */
+    public void setQuorum(final int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative join quorum: " + k);
+        }
+        quorum = k;
+    }
+
+    /**
+     * Accessor method for property
+     * @return The time the join waits for the members of a family, 0 for no timeout
+     */
+    public double getJoinTimeout() {
+        return joinTimeout;
+    }
+
+    /**
+     * Sets the time the join waits for the members of a family since its first arrival. On
+     * expiration the dad is released as soon as it has arrived, and the later sons are
+     * discarded.
+     * @param timeout The timeout, 0 for no timeout
+     */
+    public void setJoinTimeout(final double timeout) {
+        setJoinTimeout(timeout, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    /**
+     * Sets the time the join waits for the members of a family since its first arrival. The
+     * timeouts are kept on a timing wheel whose tick is {@code timeout / ticksPerWheel}, hence
+     * a timeout expires at most one tick late.
+     * @param timeout The timeout, 0 for no timeout
+     * @param ticksPerWheel The number of slots of the timing wheel
+     */
+    public void setJoinTimeout(final double timeout, final int ticksPerWheel) {
+        if (timeout < 0.0) {
+            throw new IllegalArgumentException("Negative join timeout: " + timeout);
+        }
+        joinTimeout = timeout;
+        familyTimeouts = (timeout > 0.0) ? new TimingWheel<Family>(timeout / ticksPerWheel, ticksPerWheel) : null;
+    }
+
+    /**
+     * Accessor method for property
+     * @return The number of sons arrived after the release or the timeout of their family
+     */
+    public int getDiscardedSons() {
+        return discardedSons;
+    }
+
+    /**
+     * Accessor method for property
+     * @return The number of families whose timeout expired before the join
+     */
+    public int getTimedOutFamilies() {
+        return timedOutFamilies;
     }
 }
 
@@ -165,5 +165,9 @@ public abstract class PassiveQueueInNode extends SpecialNode {
      */
     public void setTokenRequestPort(final OutPort p) {
         tokenRequestPort = p;
-    }    
+    }
+
+    public Time getLookahead() {
+        return min(userForwardDelay, tokenRequestDelay);
+    }
 }
@@ -207,5 +207,9 @@ public abstract class PassiveQueueOutNode extends SpecialNode {
      */
     public void setTokenDismissPort(final OutPort p) {
         tokenDismissPort = p;
-    }    
+    }
+
+    public Time getLookahead() {
+        return min(userForwardDelay, tokenDismissDelay);
+    }
 }
@@ -357,4 +357,8 @@ public class PoolOfTokens extends JEQNElement {
     public void setOutTokenReleasePort(final OutPort p) {
         outTokenReleasePort = p;
     }
+
+    public Time getLookahead() {
+        return min(min(tokenAllocateEventAckDelay, tokenReleaseEventAckDelay), min(tokenCreateEventAckDelay, tokenDestroyEventAckDelay));
+    }
 }
@@ -127,5 +127,9 @@ public abstract class SpecialNode extends JEQNElement {
      */
     public void setUserForwardDelay(Time t) {
         userForwardDelay = t;
-    }    
+    }
+
+    public Time getLookahead() {
+        return userForwardDelay;
+    }
 }
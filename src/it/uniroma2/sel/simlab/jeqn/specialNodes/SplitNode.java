@@ -29,6 +29,8 @@ import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNTimeException;
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNUnexpectedEventReceivedException;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNName;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
+import it.uniroma2.sel.simlab.jeqn.policies.IntPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.IntPolicyAdapter;
 import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
 import it.uniroma2.sel.simlab.jeqn.users.CloneUser;
 import it.uniroma2.sel.simlab.jeqn.users.User;
@@ -53,6 +55,9 @@ public class SplitNode extends SpecialNode {
     // the policy that determines the number of replicated users to be generated for each incoming user
     private MaskBasePolicy<?, User, ?, Integer> numberOfUsers;   
 
+    // the above policy, called with a primitive decision
+    private IntPolicy<User> intNumberOfUsers;
+
     // the object that extract the data to be used by the above policy
     //private UserBasedDecisionDataFactory decisionDataFactory;
     
@@ -120,7 +125,7 @@ public class SplitNode extends SpecialNode {
                 
                 User u = (User) event.getData();
                 
-                Integer numberOfNewUsers = numberOfUsers.getDecisionFor(u);//decisionDataFactory.buildDecisionDataFrom(u));
+                int numberOfNewUsers = intNumberOfUsers.getIntDecisionFor(u);//decisionDataFactory.buildDecisionDataFrom(u));
                 ArrayList<CloneUser> clones = CloneUser.clone(u, numberOfNewUsers);
                
                 //System.out.println("Numero di cloni : " + numberOfNewUsers);
@@ -167,6 +172,7 @@ public class SplitNode extends SpecialNode {
 
     private void setNumberOfUsers(final MaskBasePolicy<?, User, ?, Integer> p) { //final MaskBasePolicy<?, ?, DecisionData, Integer> p) {
         numberOfUsers = p;
+        intNumberOfUsers = IntPolicyAdapter.adapt(p);
     }
 
 //    private void setDecisionDataFactory(final UserBasedDecisionDataFactory f) {
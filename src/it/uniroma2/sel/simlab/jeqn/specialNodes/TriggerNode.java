@@ -29,6 +29,8 @@ import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNTimeException;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNElement;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNName;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
+import it.uniroma2.sel.simlab.jeqn.policies.BooleanPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.BooleanPolicyAdapter;
 import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
 import it.uniroma2.sel.simlab.jeqn.stats.Population;
 import it.uniroma2.sel.simlab.jeqn.stats.SetOfPopulations;
@@ -59,6 +61,7 @@ public class TriggerNode extends JEQNElement {
     protected OutPort nextEntityPort;
     protected Time reactionDelay;
     protected MaskBasePolicy<?, User, ?, Boolean> triggeringPolicy;
+    protected BooleanPolicy<User> booleanTriggeringPolicy;
     protected UserGenerator triggerUserGenerator;
     protected SetOfPopulations samples;
 
@@ -70,6 +73,7 @@ public class TriggerNode extends JEQNElement {
         setNextEntityPort(new OutPort(new JEQNName(NEXT_ENTITY), this));
         setInPort(new InPort(new JEQNName(IN_PORT), this));
         setTriggerUserGenerator(triggerUserGenerator);
+        setTriggeringPolicy(triggeringPolicy);
 
         samples = new SetOfPopulations();
     }
@@ -99,7 +103,7 @@ public class TriggerNode extends JEQNElement {
 
                 currentPopulation.insertSample(getClock().getValue() - timeOfLastTrigger);
 
-                if (triggeringPolicy.getDecisionFor(toCheck)) {
+                if (booleanTriggeringPolicy.getBooleanDecisionFor(toCheck)) {
                     User triggerUser = triggerUserGenerator.getNextUser();
                     triggerUser.setBornTime(getClock());
                     send(nextEntityPort, reactionDelay, Events.NEW_INCOMING_USER, triggerUser);
@@ -159,6 +163,11 @@ public class TriggerNode extends JEQNElement {
         triggerUserGenerator = ug;
     }
 
+    public void setTriggeringPolicy(final MaskBasePolicy<?, User, ?, Boolean> p) {
+        triggeringPolicy = p;
+        booleanTriggeringPolicy = BooleanPolicyAdapter.adapt(p);
+    }
+
     public InPort getInPort() {
         return inPort;
     }
@@ -166,4 +175,8 @@ public class TriggerNode extends JEQNElement {
     protected void setInPort(InPort p) {
         inPort = p;
     }
+
+    public Time getLookahead() {
+        return reactionDelay;
+    }
 }
@@ -23,12 +23,13 @@
  package it.uniroma2.sel.simlab.jeqn.specialNodes.policies.triggering;
 
 import it.uniroma2.sel.simlab.jeqn.policies.StateOnlyDependentPolicy;
+import it.uniroma2.sel.simlab.jeqn.general.Checkpointable;
 
 /* Defines a triggering policy based on the number of users arrived at the center
  *
  * @author Daniele Gianni
  */
-public class CountNTriggeringPolicy extends StateOnlyDependentPolicy<Integer, Boolean>{
+public class CountNTriggeringPolicy extends StateOnlyDependentPolicy<Integer, Boolean> implements Checkpointable {
 
 	private static final Integer COUNTED_INITIAL_VALUE = 0; 
 	private Integer counted;
@@ -70,4 +71,12 @@ public class CountNTriggeringPolicy extends StateOnlyDependentPolicy<Integer, Bo
 	protected void setN(Integer i) {
 		n = i;
 	}
+
+	public Object saveState() {
+		return counted;
+	}
+
+	public void restoreState(Object s) {
+		setCounted((Integer) s);
+	}
 }
@@ -0,0 +1,48 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.stats;
+
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNException;
+
+import java.util.Map;
+
+/** Defines a simulation model that can be run as one of a set of independent
+ * replications. Each invocation of {@code simulate} must build its own network, with
+ * its own layer 2 implementation, so that replications share no simulation state and
+ * can be executed concurrently.
+ *
+ * @author Daniele Gianni
+ */
+public interface ReplicationModel {
+
+    /**
+     * Builds and runs one replication of the model
+     * @param replication Index of the replication, starting from 0
+     * @param seed Seed for the random streams of this replication. The model must derive
+     * the seeds of all its streams from this value only.
+     * @return The output values of the replication, for instance the mean values of the
+     * estimators of interest, keyed by output name
+     * @throws JEQNException Raised when the replication cannot be executed
+     */
+    public Map<String, Double> simulate(int replication, long seed) throws JEQNException;
+}
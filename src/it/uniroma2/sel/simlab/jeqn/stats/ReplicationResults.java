@@ -0,0 +1,102 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.stats;
+
+import it.uniroma2.sel.simlab.statistics.estimators.DiscretePopulationMean;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Collects the outputs of a set of independent replications. For each output the
+ * replication values are merged into a {@code DiscretePopulationMean}, which provides
+ * the cross-replication mean and confidence intervals.
+ *
+ * @author Daniele Gianni
+ */
+public final class ReplicationResults {
+
+    // cross-replication estimators, in order of first appearance of the outputs
+    private Map<String, DiscretePopulationMean> estimators;
+
+    // number of replications merged so far
+    private int replications;
+
+    /** Creates a new, empty, instance of ReplicationResults */
+    public ReplicationResults() {
+        estimators = new LinkedHashMap<String, DiscretePopulationMean>();
+        replications = 0;
+    }
+
+    /**
+     * Merges the outputs of a replication
+     * @param outputs The output values of the replication, keyed by output name
+     */
+    public void merge(final Map<String, Double> outputs) {
+        for (Map.Entry<String, Double> e : outputs.entrySet()) {
+            DiscretePopulationMean estimator = estimators.get(e.getKey());
+            if (estimator == null) {
+                estimator = new DiscretePopulationMean();
+                estimators.put(e.getKey(), estimator);
+            }
+            estimator.insertNewSample(e.getValue());
+        }
+        replications++;
+    }
+
+    /**
+     * Gets the cross-replication estimator for an output
+     * @param output The output name
+     * @return The estimator, null if no replication produced the output
+     */
+    public DiscretePopulationMean getEstimator(final String output) {
+        return estimators.get(output);
+    }
+
+    /**
+     * Gets the names of the collected outputs
+     * @return The output names
+     */
+    public Iterable<String> getOutputs() {
+        return estimators.keySet();
+    }
+
+    /**
+     * Gets the number of merged replications
+     * @return The number of replications
+     */
+    public int getReplications() {
+        return replications;
+    }
+
+    public void printStatistics() {
+        System.out.println("### Replications : " + replications + "\n");
+
+        for (Map.Entry<String, DiscretePopulationMean> e : estimators.entrySet()) {
+            System.out.println(e.getKey());
+            System.out.println("    Mean value                   : " + e.getValue().meanValue());
+            System.out.println("    Variance                     : " + e.getValue().variance());
+            System.out.println("    Confidence interval a = 0.9  : " + e.getValue().confidenceInterval(0.9));
+        }
+        System.out.println("=====================================\n");
+    }
+}
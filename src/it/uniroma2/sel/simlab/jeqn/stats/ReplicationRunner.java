@@ -0,0 +1,153 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.stats;
+
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Runs independent replications of a model on a pool of worker threads and merges
+ * their outputs.
+ * <p>
+ * Each replication receives a seed derived from the base seed and from the replication
+ * index only, so that the results do not depend on the number of workers or on the
+ * order in which the replications are executed. The outputs are merged in replication
+ * order.
+ *
+ * @author Daniele Gianni
+ */
+public final class ReplicationRunner {
+
+    // golden ratio increment of the SplitMix64 generator
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    // model to be replicated
+    private ReplicationModel model;
+
+    // seed from which the replication seeds are derived
+    private long baseSeed;
+
+    // number of worker threads
+    private int workers;
+
+    /**
+     * Creates a new instance of ReplicationRunner, using a worker for each available processor
+     * @param model The model to be replicated
+     * @param baseSeed The seed from which the replication seeds are derived
+     */
+    public ReplicationRunner(final ReplicationModel model, final long baseSeed) {
+        this(model, baseSeed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new instance of ReplicationRunner
+     * @param model The model to be replicated
+     * @param baseSeed The seed from which the replication seeds are derived
+     * @param workers The number of worker threads. Use 1 for models whose layer 2
+     * implementation cannot be instantiated more than once at the same time.
+     */
+    public ReplicationRunner(final ReplicationModel model, final long baseSeed, final int workers) {
+        setModel(model);
+        setBaseSeed(baseSeed);
+        setWorkers(workers);
+    }
+
+    /**
+     * Runs the replications and merges their outputs
+     * @param replications The number of replications
+     * @return The merged outputs
+     * @throws JEQNException Raised when a replication fails
+     */
+    public ReplicationResults run(final int replications) throws JEQNException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, Math.max(1, replications)));
+        List<Future<Map<String, Double>>> outputs = new ArrayList<Future<Map<String, Double>>>(replications);
+
+        try {
+            for (int i = 0; i < replications; i++) {
+                final int replication = i;
+                final long seed = seedFor(i);
+
+                outputs.add(executor.submit(new Callable<Map<String, Double>>() {
+                    public Map<String, Double> call() throws JEQNException {
+                        return model.simulate(replication, seed);
+                    }
+                }));
+            }
+
+            ReplicationResults results = new ReplicationResults();
+            for (Future<Map<String, Double>> f : outputs) {
+                results.merge(f.get());
+            }
+            return results;
+        } catch (InterruptedException ex) {
+            ex.printStackTrace();
+            Thread.currentThread().interrupt();
+            throw new JEQNException(ex);
+        } catch (ExecutionException ex) {
+            ex.printStackTrace();
+            if (ex.getCause() instanceof JEQNException) {
+                throw (JEQNException) ex.getCause();
+            }
+            throw new JEQNException(ex);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the seed assigned to a replication. Seeds are obtained by the SplitMix64
+     * generator, whose outputs are pairwise distinct and well spread also for
+     * consecutive indexes, so that the streams of different replications do not overlap
+     * in practice.
+     * @param replication The replication index
+     * @return The seed of the replication
+     */
+    public long seedFor(final int replication) {
+        long z = baseSeed + (replication + 1) * SEED_INCREMENT;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private void setBaseSeed(final long l) {
+        baseSeed = l;
+    }
+
+    private void setModel(final ReplicationModel m) {
+        model = m;
+    }
+
+    private void setWorkers(final int i) {
+        if (i < 1) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+        workers = i;
+    }
+}
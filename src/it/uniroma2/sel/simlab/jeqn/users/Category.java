@@ -22,7 +22,9 @@
 
 package it.uniroma2.sel.simlab.jeqn.users;
 
-/** Implements Category, that represents a class of users within EQN network.
+/** Implements Category, that represents a class of users within EQN network. Categories are
+ * equal when they have the same name, and then they also share the ordinal assigned by the
+ * {@code CategoryRegistry}.
  *
  * @author  Daniele Gianni
  */
@@ -30,6 +32,9 @@ public class Category implements Comparable<Category> {
 
     // category name, which also is the category unique identifier
     private String name;
+
+    // the dense category number, shared by the categories with the same name, for array indexing
+    private int ordinal;
     
     // other info needed to characterize the category
     
@@ -52,11 +57,22 @@ public class Category implements Comparable<Category> {
     }
     
     /**
-     * Sets the category name
+     * Gets the category ordinal
+     * @return The category number, from {@code 0} in order of registration of the category names
+     * @see it.uniroma2.sel.simlab.jeqn.users.CategoryRegistry
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+    
+    /**
+     * Sets the category name, which also determines the category ordinal. The users already
+     * belonging to the category keep the previous ordinal.
      * @param s The user category name
      */
     public void setName(final String s) {
         name = s;
+        ordinal = CategoryRegistry.register(this);
     }
     
     /**
@@ -76,4 +92,25 @@ public class Category implements Comparable<Category> {
     public int compareTo(final Category c) {
         return name.compareTo(c.getName());
     }
+
+    /**
+     * Indicates whether the specified object is a category with the same name
+     * @param o The object to compare
+     * @return {@code true} if the object is a category with the same name
+     */
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Category)) {
+            return false;
+        }
+        Category c = (Category) o;
+
+        return (ordinal == c.ordinal) && name.equals(c.name);
+    }
+
+    public int hashCode() {
+        return name.hashCode();
+    }
 }
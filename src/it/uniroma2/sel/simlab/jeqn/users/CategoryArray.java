@@ -0,0 +1,84 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.users;
+
+/** Associates values to user categories by means of an array indexed by the category ordinal,
+ * as a replacement of a {@code Map} keyed by category. The array grows as categories with
+ * higher ordinals are put, and the categories without value are mapped to {@code null}.
+ *
+ * @author Daniele Gianni
+ */
+public final class CategoryArray<V> {
+
+    // the values, by category ordinal
+    private Object[] values;
+
+    /**
+     * Creates a new instance of CategoryArray, sized for the categories registered so far
+     */
+    public CategoryArray() {
+        values = new Object[CategoryRegistry.size()];
+    }
+
+    /**
+     * Gets the value of a category
+     * @param c The category
+     * @return The value of the category, {@code null} if none
+     */
+    public V get(final Category c) {
+        return get(c.getOrdinal());
+    }
+
+    /**
+     * Gets the value of a category
+     * @param ordinal The category ordinal, as returned by {@code User.getCategoryOrdinal()}
+     * @return The value of the category, {@code null} if none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final int ordinal) {
+        return ((ordinal >= 0) && (ordinal < values.length)) ? (V) values[ordinal] : null;
+    }
+
+    /**
+     * Sets the value of a category
+     * @param c The category
+     * @param v The value of the category
+     */
+    public void put(final Category c, final V v) {
+        int ordinal = c.getOrdinal();
+
+        if (ordinal >= values.length) {
+            Object[] a = new Object[Math.max(ordinal + 1, CategoryRegistry.size())];
+            System.arraycopy(values, 0, a, 0, values.length);
+            values = a;
+        }
+        values[ordinal] = v;
+    }
+
+    /**
+     * Removes all the values
+     */
+    public void clear() {
+        values = new Object[CategoryRegistry.size()];
+    }
+}
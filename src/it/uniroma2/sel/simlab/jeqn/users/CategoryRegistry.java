@@ -0,0 +1,90 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.users;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Interns the user categories by name and assigns them dense ordinals, starting from {@code 0}
+ * in order of registration. Categories with the same name share the ordinal, so that the
+ * category-keyed policies and generators, as well as per-category statistics, can be plain arrays
+ * of {@code size()} elements indexed by {@code Category.getOrdinal()}.
+ *
+ * @author Daniele Gianni
+ */
+public final class CategoryRegistry {
+
+    // the first category registered with each name, by ordinal
+    private static final List<Category> CATEGORIES = new ArrayList<Category>();
+
+    // the ordinals of the registered names
+    private static final Map<String, Integer> ORDINALS = new HashMap<String, Integer>();
+
+    private CategoryRegistry() {
+    }
+
+    /**
+     * Gets the category with the specified name, creating it at the first request
+     * @param name The category name
+     * @return The first category registered with the name
+     */
+    public static synchronized Category intern(final String name) {
+        Integer ordinal = ORDINALS.get(name);
+
+        return (ordinal == null) ? new Category(name) : CATEGORIES.get(ordinal);
+    }
+
+    /**
+     * Gets the category with the specified ordinal
+     * @param ordinal The category ordinal
+     * @return The first category registered with the ordinal
+     */
+    public static synchronized Category get(final int ordinal) {
+        return CATEGORIES.get(ordinal);
+    }
+
+    /**
+     * Gets the number of ordinals assigned so far
+     * @return The number of distinct category names, which is the length of an array indexed by ordinal
+     */
+    public static synchronized int size() {
+        return CATEGORIES.size();
+    }
+
+    /*
+     * registers the name of the category, returning its ordinal
+     */
+    static synchronized int register(final Category c) {
+        Integer ordinal = ORDINALS.get(c.getName());
+
+        if (ordinal == null) {
+            ordinal = CATEGORIES.size();
+
+            CATEGORIES.add(c);
+            ORDINALS.put(c.getName(), ordinal);
+        }
+        return ordinal;
+    }
+}
@@ -35,6 +35,9 @@ public class CloneUser extends User {
 
     // number of the copy in the set of clone users generated by the Split node
     private Integer copyNumber;
+
+    // the user name, rendered when first requested
+    private String name;
     
     /** 
      * Creates a new instance of CloneUser
@@ -66,7 +69,7 @@ public class CloneUser extends User {
      */
      
     public static CloneUser wrap(final User u) {
-        return new CloneUser(u);
+        return wrap(u, 0);
     }
 
     /**
@@ -77,7 +80,16 @@ public class CloneUser extends User {
      */
     
     public static CloneUser wrap(final User u, final Integer i) {
-        return new CloneUser(u, i);
+        CloneUser c = UserPools.CLONE_USERS.reuse();
+        if (c == null) {
+            c = new CloneUser(u, i);
+        } else {
+            c.reinit(u);
+            c.setCloned(u);
+            c.setCopyNumber(i);
+        }
+
+        return UserPools.CLONE_USERS.lend(c);
     }        
 
     /**
@@ -88,12 +100,12 @@ public class CloneUser extends User {
      * @return the list of clones
      */
      
-    public static ArrayList<CloneUser> clone(final User toClone, final Integer numberOfClones) {
+    public static ArrayList<CloneUser> clone(final User toClone, final int numberOfClones) {
     
         ArrayList<CloneUser> clones = new ArrayList<CloneUser>(numberOfClones);
         
         for (int i = 0; i < numberOfClones; i++) {
-            clones.add(new CloneUser(toClone, i));
+            clones.add(wrap(toClone, i));
         }
         
         return clones;        
@@ -116,14 +128,19 @@ public class CloneUser extends User {
     }
     
     public String getName() {
-        return "Clone" + getCopyNumber() + "-" + cloned.getName();
+        if (name == null) {
+            name = "Clone" + getCopyNumber() + "-" + cloned.getName();
+        }
+        return name;
     }
     
     protected void setCloned(final User u) {
         cloned = u;
+        name = null;
     }
     
     public void setCopyNumber(final Integer i) {
         copyNumber = i;
+        name = null;
     }
 }
@@ -42,6 +42,9 @@ public final class CountingUser extends User {
 
     // the user being wrapped in the CountingUser class
     private User wrapped;
+
+    // the user name, rendered when first requested
+    private String name;
     
     /** 
      * Creates a new instance of UserWithCounter wrapping an existing user
@@ -59,7 +62,16 @@ public final class CountingUser extends User {
      * @return A new istance of UserWithCounter
      */
     public static CountingUser wrap(final User toWrap) {        
-        return new CountingUser(toWrap);
+        CountingUser c = UserPools.COUNTING_USERS.reuse();
+        if (c == null) {
+            c = new CountingUser(toWrap);
+        } else {
+            c.reinit(toWrap);
+            c.setWrapped(toWrap);
+            c.setCounter(0);
+        }
+
+        return UserPools.COUNTING_USERS.lend(c);
     }
     
     /**
@@ -80,7 +92,10 @@ public final class CountingUser extends User {
     }
     
     public String getName() {
-        return COUNT_PREFIX + wrapped.getName();
+        if (name == null) {
+            name = COUNT_PREFIX + wrapped.getName();
+        }
+        return name;
     }
     
     /**
@@ -105,6 +120,7 @@ public final class CountingUser extends User {
      */
     private void setWrapped(final User u) {
         wrapped = u;                
+        name = null;
     }      
     
     /**
@@ -34,10 +34,16 @@ public class DadUser extends User{
     // the wrapped (original) user passing through a Fork Node
     private User me;
 
+    // the user name, rendered when first requested
+    private String name;
+
     // the set of Son users
     private ArrayList<SonUser> sons;
 
     private Integer numberOfSons; // probably redundant but ...
+
+    // the join state of this user and its sons
+    private final Family family = new Family(this);
     
     /** Creates a new instance of DadUser
      * @param dadUser the dad
@@ -79,7 +85,26 @@ public class DadUser extends User{
      * @return The wrapped user
      */
     public static DadUser wrap(final User u) {
-        return new DadUser(u);
+        DadUser d = UserPools.DAD_USERS.reuse();
+        if (d == null) {
+            d = new DadUser(u);
+        } else {
+            d.rewrap(u);
+        }
+
+        return UserPools.DAD_USERS.lend(d);
+    }
+
+    /*
+     * Reinitializes a pooled DadUser for wrapping the given user
+     */
+    private void rewrap(final User u) {
+        reinit(u);
+
+        setMe(u);
+        sons.clear();
+        setNumberOfSons(0);
+        family.reset();
     }
     
     /**
@@ -115,12 +140,23 @@ public class DadUser extends User{
         return me;
     }
 
+    /**
+     * Accessor method for property
+     * @return The join state of this user and its sons
+     */
+    public Family getFamily() {
+        return family;
+    }
+
     /**
      * Accessor method for property
      * @return This user name
      */
     public String getName() {
-        return "Dad-" + me.getName();
+        if (name == null) {
+            name = "Dad-" + me.getName();
+        }
+        return name;
     }
     
     /**
@@ -176,6 +212,7 @@ public class DadUser extends User{
     
     private void setMe(final User u) {
         me = u;
+        name = null;
     }
     
     private void setNumberOfSons(final int i) {
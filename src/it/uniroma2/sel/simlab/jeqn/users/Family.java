@@ -0,0 +1,201 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.users;
+
+import it.uniroma2.sel.simlab.jeqn.dataStructures.TimingWheel;
+
+/** Keeps the join state of a family, that is of a DadUser and its SonUsers, so that a
+ * Join Node synchronizes the family members without any lookup. The state counts the
+ * sons arrived and records whether the dad has arrived, whether it has been released and
+ * whether the family has timed out, together with the pending timeout, if any.
+ * <p>
+ * A family is only accessed by the Join Node entity that joins it, hence the state
+ * needs no synchronization.
+ *
+ * @author Daniele Gianni
+ */
+public final class Family {
+
+    // the dad of the family
+    private final DadUser dad;
+
+    // number of sons arrived at the join
+    private int sonsArrived;
+
+    // number of sons arrived after the release or the timeout, and discarded
+    private int sonsDiscarded;
+
+    // whether the dad has arrived at the join
+    private boolean dadArrived;
+
+    // whether the dad has been released by the join
+    private boolean released;
+
+    // whether the join has stopped waiting for the sons
+    private boolean timedOut;
+
+    // the pending join timeout, null if none
+    private TimingWheel.Timeout<Family> timeout;
+
+    /**
+     * Creates a new instance of Family
+     * @param dad The dad of the family
+     */
+    Family(final DadUser dad) {
+        this.dad = dad;
+
+        sonsArrived = 0;
+        sonsDiscarded = 0;
+        dadArrived = false;
+        released = false;
+        timedOut = false;
+    }
+
+    /*
+     * Reinitializes the state when the dad is recycled
+     */
+    void reset() {
+        sonsArrived = 0;
+        sonsDiscarded = 0;
+        dadArrived = false;
+        released = false;
+        timedOut = false;
+        timeout = null;
+    }
+
+    /**
+     * Records the arrival of the dad at the join
+     */
+    public void dadArrived() {
+        assert !dadArrived : "Inconsistent state in Family: dad already arrived";
+        dadArrived = true;
+    }
+
+    /**
+     * Records the arrival of a son at the join
+     * @return The number of sons arrived so far
+     */
+    public int sonArrived() {
+        sonsArrived++;
+        assert (sonsArrived <= dad.getNumberOfSons()) : "Inconsistent state in Family: more sons arrived than expected";
+
+        return sonsArrived;
+    }
+
+    /**
+     * Records the arrival of a son after the release or the timeout, which is discarded
+     */
+    public void sonDiscarded() {
+        sonsDiscarded++;
+    }
+
+    /**
+     * Says whether the dad has been released and all its sons have arrived, so that no
+     * member of the family is still in the network
+     * @return {@code true} if the family is complete
+     */
+    public boolean isComplete() {
+        return released && ((sonsArrived + sonsDiscarded) == dad.getNumberOfSons());
+    }
+
+    /**
+     * Says whether the dad can be released, that is whether it has arrived together with the
+     * required number of sons, or it has arrived and the family has timed out
+     * @param requiredSons The number of sons required for the join
+     * @return {@code true} if the dad can be released
+     */
+    public boolean isJoined(final int requiredSons) {
+        return dadArrived && !released && (timedOut || (sonsArrived >= requiredSons));
+    }
+
+    /**
+     * Records the release of the dad
+     */
+    public void release() {
+        released = true;
+    }
+
+    /**
+     * Records that the join has stopped waiting for the sons
+     */
+    public void timeOut() {
+        timedOut = true;
+        timeout = null;
+    }
+
+    /**
+     * Accessor method for property
+     * @return The dad of the family
+     */
+    public DadUser getDad() {
+        return dad;
+    }
+
+    /**
+     * Accessor method for property
+     * @return The number of sons arrived at the join
+     */
+    public int getSonsArrived() {
+        return sonsArrived;
+    }
+
+    /**
+     * Says whether the dad has arrived at the join
+     * @return {@code true} if the dad has arrived
+     */
+    public boolean isDadArrived() {
+        return dadArrived;
+    }
+
+    /**
+     * Says whether the dad has been released by the join
+     * @return {@code true} if the dad has been released
+     */
+    public boolean isReleased() {
+        return released;
+    }
+
+    /**
+     * Says whether the join has stopped waiting for the sons
+     * @return {@code true} if the family has timed out
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Accessor method for property
+     * @return The pending join timeout, {@code null} if none
+     */
+    public TimingWheel.Timeout<Family> getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Accessor method for property
+     * @param t The pending join timeout, {@code null} if none
+     */
+    public void setTimeout(final TimingWheel.Timeout<Family> t) {
+        timeout = t;
+    }
+}
@@ -32,6 +32,9 @@ package it.uniroma2.sel.simlab.jeqn.users;
 public class SameCatUserGenerator implements UserGenerator {
     
     private Category category;
+
+    // the name of the generated users
+    private String userName;
     
     /** Creates a new instance of SameCatUserGenerator */
     public SameCatUserGenerator(final User u) {
@@ -39,7 +42,7 @@ public class SameCatUserGenerator implements UserGenerator {
     }
     
     public User getNextUser() {
-        return new User("User_of_category_" + category.getName(), category);
+        return new User(userName, category);
     }
 
     /*
@@ -47,5 +50,6 @@ public class SameCatUserGenerator implements UserGenerator {
      */
     protected void setCategory(final Category c) {
         category = c;
+        userName = "User_of_category_" + c.getName();
     }
 }
@@ -34,8 +34,8 @@ public final class SingleCatUserGenerator implements UserGenerator {
     private Category category;
     private String prefixName;
 
-    // counter of number of users generated
-    private int userCounter = 0;
+    // counter of number of users generated, which also is the identifier of the last user
+    private long userCounter = 0;
     
     /** Creates a new instance of SingleCategoryUserGenerator 
      *  @param c Category the generated user will belong to
@@ -55,8 +55,8 @@ public final class SingleCatUserGenerator implements UserGenerator {
     }
     
     public User getNextUser() {
-        ++userCounter;
-        return new User(prefixName + Integer.toString(userCounter), category);
+        // the user name is rendered from prefix and identifier only when requested
+        return new User(prefixName, ++userCounter, category);
     }
     
     /** Getter for property category.
@@ -36,6 +36,9 @@ public final class SonUser extends User {
 
     // the reference to the dad user
     private DadUser dad;
+
+    // whether the wrapped user has been created by this son user, and can be recycled with it
+    private boolean ownUser;
     
     /**
      * Creates a new instance of SonUser
@@ -47,6 +50,7 @@ public final class SonUser extends User {
         setDad(dad);
         
         setMe(new User("SonOf-" + dad.getName(), dad.getCategory()));        
+        ownUser = true;
     }
     
     /**
@@ -77,7 +81,43 @@ public final class SonUser extends User {
      * @return The son user (wrapped)
      */
     public static SonUser wrap(final User me, final DadUser dad) {
-        return new SonUser(me, dad);
+        SonUser s = UserPools.SON_USERS.reuse();
+        if (s == null) {
+            s = new SonUser(me, dad);
+        } else {
+            s.reinit(me);
+            s.setMe(me);
+            s.setDad(dad);
+            s.ownUser = false;
+        }
+
+        return UserPools.SON_USERS.lend(s);
+    }
+
+    /**
+     * Creates a son user of the given dad, as done by the {@code SonUser(DadUser)} constructor,
+     * recycling a pooled son user and its wrapped user when possible
+     * @param dad The user's dad
+     * @return The son user
+     */
+    public static SonUser sonOf(final DadUser dad) {
+        SonUser s = UserPools.SON_USERS.reuse();
+        if (s == null) {
+            s = new SonUser(dad);
+        } else {
+            s.reinit();
+            s.setDad(dad);
+            if (s.ownUser) {
+                s.me.reinit();
+                s.me.setName("SonOf-" + dad.getName());
+                s.me.setCategory(dad.getCategory());
+            } else {
+                s.setMe(new User("SonOf-" + dad.getName(), dad.getCategory()));
+                s.ownUser = true;
+            }
+        }
+
+        return UserPools.SON_USERS.lend(s);
     }    
     
     /**
@@ -87,6 +127,14 @@ public final class SonUser extends User {
     public DadUser getDad() {
         return dad;
     }
+
+    /**
+     * Accessor method for property
+     * @return The join state of this user's family
+     */
+    public Family getFamily() {
+        return dad.getFamily();
+    }
     
     /**
      * Accessor method for property
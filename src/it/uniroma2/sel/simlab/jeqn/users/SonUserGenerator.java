@@ -50,7 +50,7 @@ public final class SonUserGenerator implements UserGenerator {
     
     public SonUser getNextUser() {            
         //if (sonsGenerated < numberOfSons) {
-            return new SonUser(/*userGenerator.getNextUser(),*/ dadUser);
+            return SonUser.sonOf(/*userGenerator.getNextUser(),*/ dadUser);
         /*} else {
             return null;
         }*/
@@ -27,7 +27,10 @@ import it.uniroma2.sel.simlab.simarch.data.Time;
 
 import it.uniroma2.sel.simlab.jeqn.requests.ServiceRequest;
 
-/** Implements the basic user in jEQN simulator
+/** Implements the basic user in jEQN simulator. A user generated with a numeric
+ * identifier keeps the identifier and the name prefix only, and renders its name the
+ * first time the name is requested; users are compared by identifier, and by name only
+ * when an identifier is missing or equal.
  *
  * @author  Daniele Gianni
  */
@@ -38,18 +41,35 @@ public class User implements Comparable<User> {
      */
     public static final String UNKNOWN_USER = "noName";
 
+    /*
+     * identifier of the users generated without one
+     */
+    public static final long NO_ID = -1;
+
     // user instantiation time
     private Time      bornTime;
 
     // user class
     private Category  category;
 
+    // ordinal of the user class, -1 if no class
+    private int       categoryOrdinal = -1;
+
+    // user identifier, unique within the generator
+    private long      id = NO_ID;
+
     // user arrival time at the entering entity
     private double    inComingTime = 0.0;
 
-    // user name
+    // user name, null until rendered from the prefix and the identifier, or from the source user
     private String name;
 
+    // prefix of the name rendered from the identifier
+    private String namePrefix;
+
+    // the user whose name this user copies on request
+    private User nameSource;
+
     // time request for the next service center
     private ServiceRequest serviceRequest;
     
@@ -69,7 +89,7 @@ public class User implements Comparable<User> {
      * @param u The user used to determine the attributes value of the new user. 
      */
     public User(final User u) {
-        setName(u.getName());
+        copyName(u);
         setBornTime(u.getBornTime());
         //setInComingTime(0.0); //u.getInComingTime());
         setCategory(u.getCategory());
@@ -85,6 +105,20 @@ public class User implements Comparable<User> {
         //setInComingTime(0.0);
     }
     
+    /**
+     * Creates a new instance of User with the specified identifier and category. The user name,
+     * the prefix followed by the identifier, is only rendered when requested.
+     * @param prefix The user name prefix
+     * @param id The user identifier
+     * @param c The category
+     */
+    public User(final String prefix, final long id, final Category c) {
+        namePrefix = prefix;
+        this.id = id;
+        setCategory(c);
+        setBornTime(JEQNTimeFactory.makeFrom(Time.ZERO));
+    }
+    
     /**
      * Creates a new instance of User with the specified name and category.
      * @param s The user name
@@ -97,6 +131,36 @@ public class User implements Comparable<User> {
         //setInComingTime(0.0);
     }
     
+    /**
+     * Reinitializes this user as done by the default constructor, so that a pooled user
+     * can be recycled
+     */
+    protected void reinit() {
+        name = UNKNOWN_USER;
+        namePrefix = null;
+        nameSource = null;
+        id = NO_ID;
+        bornTime = JEQNTimeFactory.makeFrom(Time.ZERO);
+        category = null;
+        categoryOrdinal = -1;
+        inComingTime = 0.0;
+        serviceRequest = null;
+    }
+
+    /**
+     * Reinitializes this user from the specified user, as done by the copy constructor, so
+     * that a pooled user can be recycled
+     * @param u The user used to determine the attributes value of this user.
+     */
+    protected void reinit(final User u) {
+        copyName(u);
+        bornTime = u.getBornTime();
+        category = u.getCategory();
+        categoryOrdinal = u.getCategoryOrdinal();
+        inComingTime = 0.0;
+        serviceRequest = null;
+    }
+    
     /**
      * Check whether or not this user is carrying tokens
      * @return {@code false} always for this basic user
@@ -106,11 +170,46 @@ public class User implements Comparable<User> {
     }
     
     /**
-     * Compare this user with the specified user.
+     * Compare this user with the specified user. Users are ordered by identifier, users
+     * without identifier following all the others, and then by name.
      * @param u User to be compared with this user.
      */
     public int compareTo(final User u) { //, final Comparable<? extends User> u2) {
-        return name.compareTo(u.getName());
+        if (id != u.id) {
+            if (id == NO_ID) {
+                return 1;
+            }
+            if (u.id == NO_ID) {
+                return -1;
+            }
+            return (id < u.id) ? -1 : 1;
+        }
+        return getOwnName().compareTo(u.getOwnName());
+    }
+
+    /*
+     * Takes the identifier of the given user, and its name when requested
+     */
+    private void copyName(final User u) {
+        id = u.getId();
+        name = null;
+        namePrefix = null;
+        nameSource = u;
+    }
+
+    /*
+     * Renders, if needed, the name of this user, which subclasses may decorate in getName
+     */
+    private String getOwnName() {
+        if (name == null) {
+            if (nameSource != null) {
+                name = nameSource.getName();
+                nameSource = null;
+            } else if (namePrefix != null) {
+                name = namePrefix + id;
+            }
+        }
+        return name;
     }
     
     /** Gets the user category.
@@ -127,6 +226,23 @@ public class User implements Comparable<User> {
      */
     public void setCategory(final Category c) {
         category = c;
+        categoryOrdinal = (c == null) ? -1 : c.getOrdinal();
+    }
+
+    /**
+     * Gets the ordinal of the user category.
+     * @return The category ordinal, -1 if the user has no category
+     */
+    public int getCategoryOrdinal() {
+        return categoryOrdinal;
+    }
+
+    /**
+     * Gets the user identifier.
+     * @return The identifier, {@code NO_ID} if the user has been created without one
+     */
+    public long getId() {
+        return id;
     }    
     
     /** Gets the user name.
@@ -134,7 +250,7 @@ public class User implements Comparable<User> {
      *
      */
     public String getName() {
-        return name;
+        return getOwnName();
     }
     
     /**
@@ -143,6 +259,8 @@ public class User implements Comparable<User> {
      */
     public void setName(final String s) {
         name = s;
+        namePrefix = null;
+        nameSource = null;
     }
         
     /** Gets the time request for the next service center.
@@ -0,0 +1,229 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.users;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/** Implements a pool of recyclable user wrappers of the same type. A wrapper is taken from
+ * the pool with {@code reuse}, or created when the pool is empty, then recorded with
+ * {@code lend}, and given back with {@code release} once no simulation component refers
+ * to it any longer. The pool is disabled by default, in which case it neither keeps nor
+ * returns any wrapper.
+ * <p>
+ * In debug mode the pool records the wrappers lent and not yet released, so that the
+ * wrappers never given back (leaked) are counted and the releases of wrappers not lent,
+ * or already released, are detected and ignored.
+ *
+ * @author Daniele Gianni
+ */
+public final class UserPool<U extends User> {
+
+    // default max number of wrappers kept in the pool
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    // name of the pool, for statistics
+    private final String name;
+
+    // the wrappers available for reuse
+    private final ArrayList<U> free;
+
+    // max number of wrappers kept in the pool
+    private int maxSize;
+
+    private boolean enabled;
+    private boolean debug;
+
+    // the wrappers lent and not yet released, in debug mode only
+    private Set<U> outstanding;
+
+    // statistics
+    private long lent;
+    private long reused;
+    private long released;
+    private long invalidReleases;
+
+    /**
+     * Creates a new instance of UserPool
+     * @param name The name of the pool
+     */
+    public UserPool(final String name) {
+        this.name = name;
+
+        free = new ArrayList<U>();
+
+        setMaxSize(DEFAULT_MAX_SIZE);
+        setEnabled(false);
+        setDebug(false);
+
+        initStats();
+    }
+
+    private void initStats() {
+        lent = 0;
+        reused = 0;
+        released = 0;
+        invalidReleases = 0;
+    }
+
+    // core methods
+
+    /**
+     * Takes a wrapper from the pool
+     * @return A released wrapper to be reinitialized, {@code null} if the pool is disabled or empty
+     */
+    public synchronized U reuse() {
+        if (!enabled || free.isEmpty()) {
+            return null;
+        }
+        reused++;
+
+        return free.remove(free.size() - 1);
+    }
+
+    /**
+     * Records a wrapper, reused or new, as lent to the simulation components
+     * @param u The wrapper
+     * @return The same wrapper
+     */
+    public synchronized U lend(final U u) {
+        if (enabled) {
+            lent++;
+            if (debug) {
+                outstanding.add(u);
+            }
+        }
+
+        return u;
+    }
+
+    /**
+     * Gives a wrapper back to the pool. The caller must not use the wrapper any longer.
+     * @param u The wrapper
+     */
+    public synchronized void release(final U u) {
+        if (!enabled) {
+            return;
+        }
+        if (debug && !outstanding.remove(u)) {
+            // never lent or already released
+            invalidReleases++;
+            return;
+        }
+        released++;
+
+        if (free.size() < maxSize) {
+            free.add(u);
+        }
+    }
+
+    /**
+     * Discards the wrappers kept in the pool and the debug records, and resets the statistics
+     */
+    public synchronized void clear() {
+        free.clear();
+        if (outstanding != null) {
+            outstanding.clear();
+        }
+
+        initStats();
+    }
+
+    public synchronized String getStatInfo() {
+        return name + " pool : lent " + lent + ", reused " + reused + ", released " + released +
+                ", available " + free.size() +
+                (debug ? ", leaked " + outstanding.size() + ", invalid releases " + invalidReleases : "");
+    }
+
+    // accessor methods
+
+    /**
+     * Gets the number of wrappers lent and not yet released, which is only tracked in debug mode
+     * @return The number of leaked wrappers, 0 if not in debug mode
+     */
+    public synchronized int getLeakedUsers() {
+        return debug ? outstanding.size() : 0;
+    }
+
+    /**
+     * Accessor method for property
+     * @return The number of releases of wrappers not lent, or already released, detected in debug mode
+     */
+    public synchronized long getInvalidReleases() {
+        return invalidReleases;
+    }
+
+    /**
+     * Accessor method for property
+     * @return The name of the pool
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Accessor method for property
+     * @return {@code true} if the pool is enabled
+     */
+    public synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accessor method for property
+     * @param b {@code true} to enable the pool, {@code false} to disable it and discard the kept wrappers
+     */
+    public synchronized void setEnabled(final boolean b) {
+        enabled = b;
+        if (!b) {
+            free.clear();
+        }
+    }
+
+    /**
+     * Accessor method for property
+     * @return {@code true} if the pool is in debug mode
+     */
+    public synchronized boolean isDebug() {
+        return debug;
+    }
+
+    /**
+     * Accessor method for property
+     * @param b {@code true} to track the lent wrappers for leak detection
+     */
+    public synchronized void setDebug(final boolean b) {
+        debug = b;
+        outstanding = b ? Collections.newSetFromMap(new IdentityHashMap<U, Boolean>()) : null;
+    }
+
+    /**
+     * Accessor method for property
+     * @param i The max number of wrappers kept in the pool
+     */
+    public synchronized void setMaxSize(final int i) {
+        maxSize = i;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.users;
+
+/** Holds the pools of the user wrappers created by the jEQN components: DadUser and
+ * SonUser by the Fork Node, CloneUser by the Split Node, CountingUser by the
+ * preemptive waiting system and UserWithTokens by the token pools. The wrappers are
+ * given back at the points where they are discarded, that is the Sink, the Join Node
+ * and the unwrapping of counting and token users. Pooling is opt-in: all the pools are
+ * disabled by default.
+ *
+ * @author Daniele Gianni
+ */
+public final class UserPools {
+
+    public static final UserPool<DadUser> DAD_USERS = new UserPool<DadUser>("DadUser");
+    public static final UserPool<SonUser> SON_USERS = new UserPool<SonUser>("SonUser");
+    public static final UserPool<CloneUser> CLONE_USERS = new UserPool<CloneUser>("CloneUser");
+    public static final UserPool<CountingUser> COUNTING_USERS = new UserPool<CountingUser>("CountingUser");
+    public static final UserPool<UserWithTokens> USERS_WITH_TOKENS = new UserPool<UserWithTokens>("UserWithTokens");
+
+    private static final UserPool<?>[] POOLS = {DAD_USERS, SON_USERS, CLONE_USERS, COUNTING_USERS, USERS_WITH_TOKENS};
+
+    private UserPools() {
+    }
+
+    /**
+     * Gives a user back to the pool of its type. Users of other types, subclasses included,
+     * are ignored, and so are the users wrapped by the given one.
+     * @param u The user, which must not be used any longer
+     */
+    public static void recycle(final User u) {
+        if (u == null) {
+            return;
+        }
+
+        Class<?> c = u.getClass();
+        if (c == DadUser.class) {
+            DAD_USERS.release((DadUser) u);
+        } else if (c == SonUser.class) {
+            SON_USERS.release((SonUser) u);
+        } else if (c == CloneUser.class) {
+            CLONE_USERS.release((CloneUser) u);
+        } else if (c == CountingUser.class) {
+            COUNTING_USERS.release((CountingUser) u);
+        } else if (c == UserWithTokens.class) {
+            USERS_WITH_TOKENS.release((UserWithTokens) u);
+        }
+    }
+
+    /**
+     * Enables or disables all the pools
+     * @param b {@code true} to enable pooling
+     */
+    public static void setEnabled(final boolean b) {
+        for (UserPool<?> p : POOLS) {
+            p.setEnabled(b);
+        }
+    }
+
+    /**
+     * Sets the debug mode, with leak detection, of all the pools
+     * @param b {@code true} to track the lent wrappers
+     */
+    public static void setDebug(final boolean b) {
+        for (UserPool<?> p : POOLS) {
+            p.setDebug(b);
+        }
+    }
+
+    /**
+     * Empties all the pools and resets their statistics
+     */
+    public static void clear() {
+        for (UserPool<?> p : POOLS) {
+            p.clear();
+        }
+    }
+
+    /**
+     * Gets the number of wrappers lent and not yet released by all the pools, in debug mode
+     * @return The number of leaked wrappers
+     */
+    public static int getLeakedUsers() {
+        int leaked = 0;
+        for (UserPool<?> p : POOLS) {
+            leaked += p.getLeakedUsers();
+        }
+
+        return leaked;
+    }
+
+    public static void printStatistics() {
+        System.out.println("#### User pools\n");
+        for (UserPool<?> p : POOLS) {
+            System.out.println(p.getStatInfo());
+        }
+        System.out.println("=====================================\n");
+    }
+}
@@ -69,8 +69,19 @@ public final class UserWithTokens <T extends Token> extends User {
      * @param token To be carried by the user
      * @param toWrap The user that has to carry the token
      */
+    @SuppressWarnings("unchecked")
     public static <T extends Token> UserWithTokens wrap(final User toWrap, final T token) {        
-        return new UserWithTokens<T>(toWrap, token);
+        UserWithTokens<T> ut = UserPools.USERS_WITH_TOKENS.reuse();
+        if (ut == null) {
+            ut = new UserWithTokens<T>(toWrap, token);
+        } else {
+            ut.reinit(toWrap);
+            ut.tokenList.clear();
+            ut.tokenList.add(token);
+            ut.setWrapped(toWrap);
+        }
+
+        return UserPools.USERS_WITH_TOKENS.lend(ut);
     }
     
     /**
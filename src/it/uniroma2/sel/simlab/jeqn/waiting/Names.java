@@ -33,5 +33,7 @@ public interface Names {
     public static final String IN_PORT = "inPort";
     
     public static final String OUT_PORT = "outPort";
+
+    public static final String OVERFLOW_PORT = "overflowPort";
     
 }
@@ -25,7 +25,6 @@ package it.uniroma2.sel.simlab.jeqn.waiting;
 import it.uniroma2.sel.simlab.jeqn.errors.JEQNConfigurationError;
 import it.uniroma2.sel.simlab.jeqn.errors.JEQNError;
 import it.uniroma2.sel.simlab.jeqn.events.Events;
-import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNQueueOverflowException;
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNUnexpectedEventReceivedException;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNName;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
@@ -98,22 +97,27 @@ public class NonPreemptiveWaitingSystem extends WaitingSystem {
             resourceRequestGenerator.assignResourceRequest(toInsert);
             
             // enqueueing
-            try {
-                userQueue.insert(toInsert);
-            } catch (JEQNQueueOverflowException ex) {
-                overflownUserHandler(toInsert);
+            User dropped = userQueue.offer(toInsert);
+            if (dropped != null) {
+                droppedUserHandler(dropped);
+                overflownUserHandler(dropped);
             }
 
             // if a next user request has already been received and not yet satisfied
             if (isInSendOnComingInState()) {
-                // send the user directly to the cascade center
-                Time delay = userQueue.nextUserExtractingTime();
-                send(outPort, delay, Events.NEW_INCOMING_USER, userQueue.extract());
+                meanQueueLength.insertNewSample(0, event.getTime().getValue() - lastUserMovementTime);
 
-                setState(WaitingSystemStates.SEND_ON_REQUEST);
+                // the drop policy may have rejected the user even if the queue was empty,
+                // in which case the request stays outstanding
+                if (dropped != toInsert) {
+                    // send the user directly to the cascade center
+                    Time delay = userQueue.nextUserExtractingTime();
+                    send(outPort, sendingAheadDelay.increasedBy(delay), Events.NEW_INCOMING_USER, userQueue.extract());
 
-                meanQueueLength.insertNewSample(0, event.getTime().getValue() - lastUserMovementTime);
-                meanWaitingTime.insertNewSample(delay.getValue());
+                    requestSatisfied();
+
+                    meanWaitingTime.insertNewSample(delay.getValue());
+                }
             } else {
                 // simply enqueue the user
                 meanQueueLength.insertNewSample((userQueue.getEnqueuedUsers() - 1), (event.getTime().getValue() - lastUserMovementTime));
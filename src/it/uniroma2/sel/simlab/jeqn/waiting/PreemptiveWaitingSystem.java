@@ -25,12 +25,15 @@ package it.uniroma2.sel.simlab.jeqn.waiting;
 import it.uniroma2.sel.simlab.jeqn.errors.JEQNConfigurationError;
 import it.uniroma2.sel.simlab.jeqn.errors.JEQNError;
 import it.uniroma2.sel.simlab.jeqn.events.Events;
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNConfigurationException;
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNException;
-import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNQueueOverflowException;
+import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNTimeException;
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNUnexpectedEventReceivedException;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNName;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
 
+import it.uniroma2.sel.simlab.jeqn.policies.BooleanPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.BooleanPolicyAdapter;
 import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
 import it.uniroma2.sel.simlab.jeqn.requests.ServiceRequestGenerator;
 import it.uniroma2.sel.simlab.jeqn.users.CountingUser;
@@ -84,6 +87,11 @@ public class PreemptiveWaitingSystem extends WaitingSystem {
      * to interrupt the current service and being served with no delay.
      */
     protected MaskBasePolicy<User, User, ?, Boolean> preemptionPolicy;
+
+    /*
+     * the preemption policy called with a primitive decision
+     */
+    protected BooleanPolicy<User> booleanPreemptionPolicy;
     
     /**
      * Creates a new instance of WaitingSystem
@@ -148,7 +156,7 @@ public class PreemptiveWaitingSystem extends WaitingSystem {
         if (underProcessing != null) {
             
             preemptionPolicy.setImplicitInput(underProcessing);
-            return preemptionPolicy.getDecisionFor(u);
+            return booleanPreemptionPolicy.getBooleanDecisionFor(u);
 
         } else return true;
     }            
@@ -171,47 +179,45 @@ public class PreemptiveWaitingSystem extends WaitingSystem {
             // if a request for the next user was received but not successfully processed
             //(no users at that request time)
             if (isInSendOnComingInState()) {                
-                try {
-                    userQueue.insert(newUser);
-                } catch (JEQNQueueOverflowException ex) {
-                    overflownUserHandler(newUser);
-                }
+                User dropped = enqueue(newUser);
                 
-                Time delay = userQueue.nextUserExtractingTime();
-                send(outPort, sendingAheadDelay.increasedBy(delay), Events.NEW_INCOMING_USER, userQueue.extract());
+                meanQueueLength.insertNewSample(0, getClock().getValue() - lastUserMovementTime);
+
+                // the drop policy may have rejected the user even if the queue was empty,
+                // in which case the request stays outstanding
+                if (dropped != newUser) {
+                    Time delay = userQueue.nextUserExtractingTime();
+                    send(outPort, sendingAheadDelay.increasedBy(delay), Events.NEW_INCOMING_USER, userQueue.extract());
                 
-                setState(WaitingSystemStates.SEND_ON_REQUEST);
+                    requestSatisfied();
                 
-                meanQueueLength.insertNewSample(0, getClock().getValue() - lastUserMovementTime);
-                meanWaitingTime.insertNewSample(delay.getValue());                                                                              
+                    meanWaitingTime.insertNewSample(delay.getValue());                                                                              
+                }
             } else {
                 // chech user properties to see whether the user is higher priority than user currently under processing
                 if (isHigherPriorityThanCurrentlyUnderProcessing(newUser)) {
                     // user is higher priority
-                    preemptions++;                    
-                    
-                    try {
-                        userQueue.insert(newUser);
-                    } catch (JEQNQueueOverflowException ex) {
-                        overflownUserHandler(newUser);
-                    }
+                    int queueLength = userQueue.getEnqueuedUsers();
+
+                    User dropped = enqueue(newUser);
                     
-                    meanQueueLength.insertNewSample((userQueue.getEnqueuedUsers() - 1), (getClock().getValue()/*event.getTime().getValue()*/ - lastUserMovementTime));                  
+                    meanQueueLength.insertNewSample(queueLength, (getClock().getValue()/*event.getTime().getValue()*/ - lastUserMovementTime));                  
                     
                     if (maxQueueLength < userQueue.getEnqueuedUsers()) maxQueueLength = userQueue.getEnqueuedUsers();
                                         
-                    Time delay = userQueue.nextUserExtractingTime();                                        
+                    // a dropped user does not preempt the user under processing
+                    if (dropped != newUser) {
+                        preemptions++;
+
+                        Time delay = userQueue.nextUserExtractingTime();                                        
                     
-                    meanWaitingTime.insertNewSample(delay.getValue());
+                        meanWaitingTime.insertNewSample(delay.getValue());
 
-                    send(outPort, sendingAheadDelay, Events.NEW_INCOMING_USER, userQueue.extract());
+                        send(outPort, sendingAheadDelay, Events.NEW_INCOMING_USER, userQueue.extract());
+                    }
                 } else {
                     // user is lower priority, just enqueue it
-                    try {
-                        userQueue.insert(newUser);
-                    } catch (JEQNQueueOverflowException ex) {
-                        overflownUserHandler(newUser);
-                    }                    
+                    enqueue(newUser);
                     meanQueueLength.insertNewSample((userQueue.getEnqueuedUsers() - 1), (getClock().getValue() /*(event.getTime().getValue()*/ - lastUserMovementTime));                                       
                     if (userQueue.getEnqueuedUsers() > maxQueueLength) maxQueueLength = userQueue.getEnqueuedUsers();
                 }
@@ -237,17 +243,21 @@ public class PreemptiveWaitingSystem extends WaitingSystem {
      */
     protected void otherEventHandler(final Event e) throws JEQNException {              
         if (e.getTag().equals(Events.REENQUEUE_USER)) {            
-            try {
-                CountingUser user = (CountingUser) e.getData();            
-                user.count();
-                user.setInComingTime(getClock().getValue()); //e.getTime().getValue());
+            CountingUser user = (CountingUser) e.getData();            
+            user.count();
+            user.setInComingTime(getClock().getValue()); //e.getTime().getValue());
             
-                userQueue.insert(user);
-                
-                meanQueueLength.insertNewSample((userQueue.getEnqueuedUsers() - 1), (getClock().getValue()/*e.getTime().getValue()*/ - lastUserMovementTime));                
-            } catch (JEQNQueueOverflowException ex) {
-                overflownUserHandler(null);
+            try {
+                enqueue(user);
+            } catch (TimeAlreadyPassedException ex) {
+                ex.printStackTrace();
+                throw new JEQNTimeException(ex);
+            } catch (UnlinkedPortException ex) {
+                ex.printStackTrace();
+                throw new JEQNConfigurationException(ex);
             }
+                
+            meanQueueLength.insertNewSample((userQueue.getEnqueuedUsers() - 1), (getClock().getValue()/*e.getTime().getValue()*/ - lastUserMovementTime));                
      
             if (userQueue.getEnqueuedUsers() > maxQueueLength) maxQueueLength = userQueue.getEnqueuedUsers();
             
@@ -259,6 +269,19 @@ public class PreemptiveWaitingSystem extends WaitingSystem {
         }        
     }
 
+    /*
+     * offers the user to the user queue, handling the user dropped if any, which is returned
+     */
+    private User enqueue(final CountingUser u) throws TimeAlreadyPassedException, UnlinkedPortException {
+        User dropped = userQueue.offer(u);
+
+        if (dropped != null) {
+            droppedUserHandler(dropped);
+            overflownUserHandler((CountingUser) dropped);
+        }
+        return dropped;
+    }
+
     /**
      * Handles the overflowing users in the case of user queue overflow
      * @param newUser The user overflown
@@ -295,6 +318,7 @@ public class PreemptiveWaitingSystem extends WaitingSystem {
 
     private void setPreemptionPolicy(MaskBasePolicy<User, User, ?, Boolean> p) {
         preemptionPolicy = p;
+        booleanPreemptionPolicy = BooleanPolicyAdapter.adapt(p);
     }
     
     private void setPreemptions(final int i) {
@@ -31,6 +31,7 @@ import it.uniroma2.sel.simlab.jeqn.general.JEQNName;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
 import it.uniroma2.sel.simlab.jeqn.requests.ServiceRequestGenerator;
 import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.IdleQueueListener;
 import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserQueue;
 
 import it.uniroma2.sel.simlab.simarch.data.Event;
@@ -48,6 +49,7 @@ import it.uniroma2.sel.simlab.statistics.estimators.DiscretePopulationMean;
 
 import static it.uniroma2.sel.simlab.jeqn.waiting.Names.IN_PORT;
 import static it.uniroma2.sel.simlab.jeqn.waiting.Names.OUT_PORT;
+import static it.uniroma2.sel.simlab.jeqn.waiting.Names.OVERFLOW_PORT;
 
 import static it.uniroma2.sel.simlab.jeqn.waiting.WaitingSystemStates.SEND_ON_REQUEST;
 
@@ -68,6 +70,16 @@ public abstract class WaitingSystem extends JEQNElement {
      * The port through which the user are sent to the next entity
      */
     protected OutPort outPort;
+
+    /**
+     * The port through which the dropped users are sent, when overflow routing is enabled
+     */
+    protected OutPort overflowPort;
+
+    /**
+     * Says whether the dropped users are sent through the overflow port or discarded
+     */
+    protected boolean overflowRouting;
     
     /**
      * The service request generator
@@ -83,6 +95,22 @@ public abstract class WaitingSystem extends JEQNElement {
      * The current state
      */
     protected WaitingSystemStates state;    
+
+    /**
+     * The number of next user requests received and not yet satisfied. Service centers
+     * with several servers can have more than one request outstanding.
+     */
+    protected int pendingRequests;
+
+    /**
+     * The listener notified when a next user request finds the queue empty, if any
+     */
+    private IdleQueueListener idleQueueListener;
+
+    /**
+     * The number by which this waiting system is known to the idle queue listener
+     */
+    private int idleQueueNumber;
     
     /**
      * The data structure that store the users
@@ -113,6 +141,11 @@ public abstract class WaitingSystem extends JEQNElement {
      * The longest queue length experienced
      */
     protected long maxQueueLength;
+
+    /**
+     * The number of users dropped by the user queue
+     */
+    protected int droppedUsers;
     /**
      * The time it received the last user
      */
@@ -139,6 +172,7 @@ public abstract class WaitingSystem extends JEQNElement {
         
         setInPort(new InPort(new JEQNName(IN_PORT), this));
         setOutPort(new OutPort(new JEQNName(OUT_PORT), this));
+        setOverflowPort(new OutPort(new JEQNName(OVERFLOW_PORT), this));
         
         setState(SEND_ON_REQUEST);
         setUsersQueue(userQueue);                
@@ -164,6 +198,7 @@ public abstract class WaitingSystem extends JEQNElement {
         
         setInPort(new InPort(new JEQNName(IN_PORT), this));
         setOutPort(new OutPort(new JEQNName(OUT_PORT), this));
+        setOverflowPort(new OutPort(new JEQNName(OVERFLOW_PORT), this));
         
         setState(SEND_ON_REQUEST);
         setUsersQueue(userQueue);                
@@ -176,6 +211,8 @@ public abstract class WaitingSystem extends JEQNElement {
     private void init() {                        
         userQueue.setLayer3ToLayer2(executionContainer);
         
+        pendingRequests = 0;
+        
         initStats();
     }
     
@@ -183,6 +220,7 @@ public abstract class WaitingSystem extends JEQNElement {
         setLastUserComingInTime(0);
         setLastUserMovementTime(0);        
         setMaxQueueLength(0);        
+        droppedUsers = 0;
         initMeanQueueLength(); 
         initMeanWaitingTime();         
         initInterarrivalTime();        
@@ -271,9 +309,41 @@ public abstract class WaitingSystem extends JEQNElement {
                 throw new JEQNConfigurationException(ex);
             }
         } else {
+            pendingRequests++;
             setState(WaitingSystemStates.SEND_ON_COMING_IN);
+
+            if (idleQueueListener != null) {
+                idleQueueListener.queueIdle(idleQueueNumber);
+            }
         }
     }            
+
+    /**
+     * Handles a user dropped by the user queue: the user is counted and, if overflow
+     * routing is enabled, sent through the overflow port
+     * @param u The dropped user
+     * @throws it.uniroma2.sel.simlab.simarch.exceptions.layer2.TimeAlreadyPassedException If the underlying layer rejects the sending time
+     * @throws it.uniroma2.sel.simlab.simarch.exceptions.layer2.UnlinkedPortException If overflow routing is enabled and the overflow port is not linked
+     */
+    protected void droppedUserHandler(final User u) throws TimeAlreadyPassedException, UnlinkedPortException {
+        droppedUsers++;
+
+        if (overflowRouting) {
+            send(overflowPort, sendingAheadDelay, Events.NEW_INCOMING_USER, u);
+        }
+    }
+
+    /**
+     * Records that an outstanding next user request has been satisfied by sending an
+     * incoming user directly to the next entity
+     */
+    protected void requestSatisfied() {
+        pendingRequests--;
+
+        if (pendingRequests == 0) {
+            setState(WaitingSystemStates.SEND_ON_REQUEST);
+        }
+    }
     
     public void printStatistics() {
 
@@ -297,6 +367,7 @@ public abstract class WaitingSystem extends JEQNElement {
     		System.out.println("Sample size                         : " + meanWaitingTime.sampleSize());       
 
     		System.out.println("Number of users still in the system : " + userQueue.getEnqueuedUsers());
+    		System.out.println("Dropped users                       : " + droppedUsers);
 
     		System.out.println("\nUsersQueue Stat info :\n" + userQueue.getStatInfo());
 
@@ -321,6 +392,68 @@ public abstract class WaitingSystem extends JEQNElement {
     public OutPort getOutPort() {
         return outPort;
     }        
+
+    /**
+     * Returns the output port through which the dropped users are sent, when overflow
+     * routing is enabled. Can be connected to any entity accepting incoming users.
+     * @return The port
+     */
+    public OutPort getOverflowPort() {
+        return overflowPort;
+    }
+
+    /**
+     * Gets the number of users currently waiting, for the load balancing of the upstream elements
+     * @return The number of users in the queue
+     */
+    public int getQueueLength() {
+        return userQueue.getEnqueuedUsers();
+    }
+
+    /**
+     * Gets the number of users in the station, that is the users waiting plus one in service
+     * when no server is waiting for a user. The number is exact for a single server, and a
+     * lower bound for several servers, as the waiting system does not know how many are busy
+     * @return The number of users in the station
+     */
+    public int getUsersInSystem() {
+        return userQueue.getEnqueuedUsers() + (isIdle() ? 0 : 1);
+    }
+
+    /**
+     * Says whether a next user request is outstanding, that is a server is waiting for a user
+     * @return {@code true} if the queue is empty and a server is idle
+     */
+    public boolean isIdle() {
+        return (pendingRequests > 0);
+    }
+
+    /**
+     * Sets the listener notified whenever a next user request finds the queue empty
+     * @param l The listener, {@code null} for none
+     * @param i The number by which this waiting system is reported to the listener
+     */
+    public void setIdleQueueListener(final IdleQueueListener l, final int i) {
+        idleQueueListener = l;
+        idleQueueNumber = i;
+    }
+
+    /**
+     * Says whether the dropped users are sent through the overflow port
+     * @return {@code true} if overflow routing is enabled
+     */
+    public boolean isOverflowRouting() {
+        return overflowRouting;
+    }
+
+    /**
+     * Enables or disables the sending of the dropped users through the overflow port.
+     * When disabled, the default, the dropped users are discarded.
+     * @param b {@code true} to enable overflow routing
+     */
+    public void setOverflowRouting(final boolean b) {
+        overflowRouting = b;
+    }
     
     /**
      * Says if the system is in {@code SEND_ON_COMING_IN} state that is if it is empty 
@@ -395,6 +528,14 @@ public abstract class WaitingSystem extends JEQNElement {
     protected void setOutPort(OutPort p) {
         outPort = p;
     }
+
+    /**
+     * Accessor method for the overflow port.
+     * @param p The port
+     */
+    protected void setOverflowPort(final OutPort p) {
+        overflowPort = p;
+    }
     
     /**
      * Sets the request generator that will generate the service request for each 
@@ -437,4 +578,8 @@ public abstract class WaitingSystem extends JEQNElement {
     public void setSendingAheadDelay(final Time t) {
         sendingAheadDelay = t;
     }
+
+    public Time getLookahead() {
+        return sendingAheadDelay;
+    }
 }
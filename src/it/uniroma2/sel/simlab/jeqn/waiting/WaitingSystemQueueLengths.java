@@ -0,0 +1,65 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting;
+
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.IdleQueueListener;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.QueueLengthView;
+
+import java.util.List;
+
+/** Provides a read-only view of the queue lengths of a set of waiting systems, so that a router
+ * can balance the load among the waiting systems linked to its output ports. The length of a
+ * waiting system counts the user in service, so that a station with a busy server and an empty
+ * queue is longer than an idle one. The waiting systems are numbered as the output ports, and a
+ * waiting system is reported idle whenever one of its servers requests a user while the queue
+ * is empty.
+ *
+ * @author  Daniele Gianni
+ */
+public final class WaitingSystemQueueLengths implements QueueLengthView {
+
+    // the waiting systems, in the order of the router output ports
+    private final List<? extends WaitingSystem> waitingSystems;
+
+    /**
+     * Creates a new instance of WaitingSystemQueueLengths
+     * @param waitingSystems The waiting systems, in the order of the output ports they are linked to
+     */
+    public WaitingSystemQueueLengths(final List<? extends WaitingSystem> waitingSystems) {
+        this.waitingSystems = waitingSystems;
+    }
+
+    public int getNumberOfQueues() {
+        return waitingSystems.size();
+    }
+
+    public int getQueueLength(final int i) {
+        return waitingSystems.get(i).getUsersInSystem();
+    }
+
+    public void setIdleQueueListener(final IdleQueueListener l) {
+        for (int i = 0; i < waitingSystems.size(); i++) {
+            waitingSystems.get(i).setIdleQueueListener(l, i);
+        }
+    }
+}
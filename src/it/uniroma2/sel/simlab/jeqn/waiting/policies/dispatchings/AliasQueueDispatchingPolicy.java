@@ -0,0 +1,106 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.policies.dispatchings;
+
+import it.uniroma2.sel.simlab.jeqn.dataStructures.AliasTable;
+import it.uniroma2.sel.simlab.jeqn.policies.ImplicitButNotExplicitInputOnlyDependentPolicy;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserMultiQueue;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserQueue;
+import it.uniroma2.sel.simlab.jrand.objectStreams.numericStreams.NumericStream;
+import java.util.List;
+
+/** Implements a probabilistic dispatching policy for a user reaching a multi-queue structure.
+ * Each queue is chosen with a probability proportional to its weight, sampled in constant time
+ * by means of an alias table, instead of the linear search of
+ * {@code ProbabilityBasedQueueDispatchingPolicy}. The weights can be changed during the simulation,
+ * and the table is rebuilt once, at the next dispatched user.
+ *
+ * @author Daniele Gianni
+ */
+public class AliasQueueDispatchingPolicy extends ImplicitButNotExplicitInputOnlyDependentPolicy<List<UserQueue>, UserQueue> {
+
+    // the alias table of the queue weights
+    private final AliasTable aliasTable;
+
+    // the stream of uniform numbers in [0, 1)
+    private final NumericStream uniformStream;
+
+    /**
+     * Creates a new instance of AliasQueueDispatchingPolicy
+     * @param userMultiQueue The queues among which the users are dispatched
+     * @param weights The weights of the queues, in the order of the queues
+     * @param uniformStream The stream of uniform numbers in [0, 1)
+     */
+    public AliasQueueDispatchingPolicy(final List<UserQueue> userMultiQueue, final double[] weights, final NumericStream uniformStream) {
+        super(userMultiQueue);
+
+        aliasTable = new AliasTable(weights);
+        this.uniformStream = uniformStream;
+    }
+
+    /**
+     * Creates a new instance of AliasQueueDispatchingPolicy. The multi queue can also be set
+     * afterwards, as it needs the policy to be built.
+     * @param userMultiQueue The multi queue among which queues the users are dispatched
+     * @param weights The weights of the queues, in the order of the queues
+     * @param uniformStream The stream of uniform numbers in [0, 1)
+     */
+    public AliasQueueDispatchingPolicy(final UserMultiQueue userMultiQueue, final double[] weights, final NumericStream uniformStream) {
+        this((List<UserQueue>) null, weights, uniformStream);
+
+        setUserMultiQueue(userMultiQueue);
+    }
+
+    public UserQueue getDecision() {
+        return implicitInput.get(aliasTable.sample(uniformStream.getNext().doubleValue()));
+    }
+
+    /**
+     * Accessor method for the property
+     * @param queue The index of the queue
+     * @return The weight of the queue
+     */
+    public double getWeight(final int queue) {
+        return aliasTable.getWeight(queue);
+    }
+
+    /**
+     * Changes the weight of a queue
+     * @param queue The index of the queue
+     * @param w The new weight of the queue
+     */
+    public void setWeight(final int queue, final double w) {
+        aliasTable.setWeight(queue, w);
+    }
+
+    /**
+     * Sets the multi queue among which queues the users are dispatched
+     * @param q The multi queue
+     */
+    @SuppressWarnings("unchecked")
+    public void setUserMultiQueue(final UserMultiQueue q) {
+        if (q != null) {
+            setImplicitInput((List<UserQueue>) q.getUserQueues());
+        }
+    }
+}
@@ -22,17 +22,17 @@
 
 package it.uniroma2.sel.simlab.jeqn.waiting.policies.dispatchings;
 
-import it.uniroma2.sel.simlab.jeqn.policies.MapImplicitAndExplicitInputDependentPolicy;
-import it.uniroma2.sel.simlab.jeqn.users.Category;
+import it.uniroma2.sel.simlab.jeqn.policies.CategoryMapPolicy;
 import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserQueue;
 import it.uniroma2.sel.simlab.jrand.objectStreams.streamTrasformations.MappedStream;
 
 /** Defines a dispatching policy for a multi-queue structure. The policy is based on a mapping
- * between the set of user categories and the queues in the multi-queue structure
+ * between the set of user categories and the queues in the multi-queue structure, looked up by
+ * the category ordinal
  *
  * @author  Daniele Gianni
  */
-public class CategoryBasedMapDispatchingPolicy extends MapImplicitAndExplicitInputDependentPolicy<Category, UserQueue> {
+public class CategoryBasedMapDispatchingPolicy extends CategoryMapPolicy<UserQueue> {
    
     /** 
      * Creates a new instance of GeneralQueuesAssigner
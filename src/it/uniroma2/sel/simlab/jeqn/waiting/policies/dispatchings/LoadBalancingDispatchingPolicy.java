@@ -0,0 +1,82 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.policies.dispatchings;
+
+import it.uniroma2.sel.simlab.jeqn.policies.balancing.LoadBalancingPolicy;
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
+import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserMultiQueue;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserQueue;
+
+import java.util.List;
+
+/** Implements the dispatching of a user reaching a multi-queue structure according to a load
+ * balancing policy, such as power-of-d-choices or join-idle-queue, which reads the queue lengths
+ * from the length index of the {@code UserMultiQueue}. The multi queue can be set after the
+ * construction, as it needs the policy to be built.
+ *
+ * @author Daniele Gianni
+ */
+public class LoadBalancingDispatchingPolicy extends MaskBasePolicy<Void, User, Void, UserQueue> {
+
+    // the policy choosing the queue number
+    private final LoadBalancingPolicy loadBalancingPolicy;
+
+    // the queues of the multi queue, by number
+    private List<? extends UserQueue> userQueues;
+
+    /**
+     * Creates a new instance of LoadBalancingDispatchingPolicy
+     * @param loadBalancingPolicy The policy choosing the queue number
+     * @param userMultiQueue The multi queue upon which the decision is taken
+     */
+    public LoadBalancingDispatchingPolicy(final LoadBalancingPolicy loadBalancingPolicy, final UserMultiQueue userMultiQueue) {
+        super(null, null);
+
+        this.loadBalancingPolicy = loadBalancingPolicy;
+        setUserMultiQueue(userMultiQueue);
+    }
+
+    public UserQueue getDecisionFor(final User u) {
+        return userQueues.get(loadBalancingPolicy.getIntDecisionFor(u));
+    }
+
+    /**
+     * Accessor method for the property
+     * @return The policy choosing the queue number
+     */
+    public LoadBalancingPolicy getLoadBalancingPolicy() {
+        return loadBalancingPolicy;
+    }
+
+    /**
+     * Sets the multi queue upon which the decision is taken
+     * @param q The multi queue
+     */
+    public void setUserMultiQueue(final UserMultiQueue q) {
+        if (q != null) {
+            userQueues = q.getUserQueues();
+            loadBalancingPolicy.setQueueLengthView(q);
+        }
+    }
+}
@@ -23,15 +23,21 @@
 package it.uniroma2.sel.simlab.jeqn.waiting.policies.dispatchings;
 
 import it.uniroma2.sel.simlab.jeqn.policies.ImplicitButNotExplicitInputOnlyDependentPolicy;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserMultiQueue;
 import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserQueue;
 import java.util.List;
 
 /** Implements the dispatching policy for a user reaching a multi-queue structure.
  * The policy considers the shortest queue (in terms of number of enqueued users).
+ * When built on a {@code UserMultiQueue} the decision is read from its queue length
+ * index, otherwise the list of queues is scanned.
  *
  * @author Daniele Ganni
  */
 public class ShortestQueueDispatchingPolicy extends ImplicitButNotExplicitInputOnlyDependentPolicy<List<UserQueue>, UserQueue>  {
+
+    // the multi queue providing the queue length index, if any
+    private UserMultiQueue userMultiQueue;
         
     /**
      * Creates a new instance of ShortestQueueDispatchingPolicy
@@ -40,8 +46,24 @@ public class ShortestQueueDispatchingPolicy extends ImplicitButNotExplicitInputO
     public ShortestQueueDispatchingPolicy(final List<UserQueue> userMultiQueue) {
         super(userMultiQueue);
     }
+
+    /**
+     * Creates a new instance of ShortestQueueDispatchingPolicy that uses the queue length
+     * index of the given multi queue. The multi queue can also be set afterwards, as it
+     * needs the policy to be built.
+     * @param userMultiQueue The multi queue upon which the decision is taken
+     */
+    public ShortestQueueDispatchingPolicy(final UserMultiQueue userMultiQueue) {
+        super(null);
+
+        setUserMultiQueue(userMultiQueue);
+    }
     
     public UserQueue getDecision() {        
+        if (userMultiQueue != null) {
+            return userMultiQueue.getShortestQueue();
+        }
+
         UserQueue shortestQueue = implicitInput.get(0);
 
         for (UserQueue uq : implicitInput) {
@@ -51,4 +73,17 @@ public class ShortestQueueDispatchingPolicy extends ImplicitButNotExplicitInputO
         }
         return shortestQueue;
     }    
+
+    /**
+     * Sets the multi queue whose queue length index is used for the decision
+     * @param q The multi queue
+     */
+    @SuppressWarnings("unchecked")
+    public void setUserMultiQueue(final UserMultiQueue q) {
+        userMultiQueue = q;
+
+        if (q != null) {
+            setImplicitInput((List<UserQueue>) q.getUserQueues());
+        }
+    }
 }
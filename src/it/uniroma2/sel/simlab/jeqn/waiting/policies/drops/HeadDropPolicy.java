@@ -0,0 +1,47 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.policies.drops;
+
+import it.uniroma2.sel.simlab.jeqn.policies.ImplicitAndExplicitInputDependentPolicy;
+import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserQueue;
+
+/** Implements the head drop policy: when the queue is full the user at its head is
+ * dropped and the incoming user is enqueued
+ *
+ * @author Daniele Gianni
+ */
+public class HeadDropPolicy extends ImplicitAndExplicitInputDependentPolicy<UserQueue, User, DropDecision> {
+
+    /**
+     * Creates a new instance of HeadDropPolicy
+     * @param userQueue The bounded queue upon which the decision is made
+     */
+    public HeadDropPolicy(final UserQueue userQueue) {
+        super(userQueue);
+    }
+
+    public DropDecision getDecisionFor(final User u) {
+        return getImplicitInput().isFull() ? DropDecision.DROP_HEAD : DropDecision.ACCEPT;
+    }
+}
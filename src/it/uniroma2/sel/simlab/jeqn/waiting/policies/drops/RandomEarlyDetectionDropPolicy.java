@@ -0,0 +1,148 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.policies.drops;
+
+import it.uniroma2.sel.simlab.jeqn.general.Checkpointable;
+import it.uniroma2.sel.simlab.jeqn.policies.ImplicitAndExplicitInputDependentPolicy;
+import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.FiniteUserQueue;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserQueue;
+
+import it.uniroma2.sel.simlab.jrand.objectStreams.numericStreams.NumericStream;
+
+/** Implements the Random Early Detection drop policy. An exponentially weighted average
+ * of the queue length is updated at each arrival; below the minimum threshold the
+ * incoming user is enqueued, above the maximum threshold it is dropped, and in between
+ * it is dropped with a probability growing linearly up to the maximum drop probability.
+ * The incoming user is always dropped when the queue is full.
+ * <p>
+ * When built on a {@code FiniteUserQueue} with an idle slot time s, an arrival finding
+ * the queue empty for a time t decays the average by (1 - weight)^(t / s), as if t / s
+ * arrivals had found the queue empty, so that the average does not stay high after a
+ * burst. Otherwise the average only changes at the arrivals. The saved state is the average.
+ *
+ * @author Daniele Gianni
+ */
+public class RandomEarlyDetectionDropPolicy extends ImplicitAndExplicitInputDependentPolicy<UserQueue, User, DropDecision> implements Checkpointable {
+
+    private final double minThreshold;
+    private final double maxThreshold;
+    private final double maxDropProbability;
+
+    // weight of the last sample in the average queue length
+    private final double weight;
+
+    // stream of uniform numbers in [0, 1)
+    private final NumericStream uniformStream;
+
+    // the queue reporting its idle time, and the time of an idle slot, if the average decays
+    private final FiniteUserQueue finiteUserQueue;
+    private final double idleSlotTime;
+
+    private double averageQueueLength;
+
+    /**
+     * Creates a new instance of RandomEarlyDetectionDropPolicy
+     * @param userQueue The bounded queue upon which the decision is made
+     * @param minThreshold The average queue length below which no user is dropped
+     * @param maxThreshold The average queue length above which all the incoming users are dropped
+     * @param maxDropProbability The drop probability when the average queue length reaches the max threshold
+     * @param weight The weight of the current queue length in the average, in (0, 1]
+     * @param uniformStream The stream of uniform numbers in [0, 1) used to drop users at random
+     */
+    public RandomEarlyDetectionDropPolicy(final UserQueue userQueue, final double minThreshold, final double maxThreshold, final double maxDropProbability, final double weight, final NumericStream uniformStream) {
+        this(userQueue, null, 0.0, minThreshold, maxThreshold, maxDropProbability, weight, uniformStream);
+    }
+
+    /**
+     * Creates a new instance of RandomEarlyDetectionDropPolicy whose average decays while the queue is idle
+     * @param userQueue The bounded queue upon which the decision is made
+     * @param idleSlotTime The idle time counted as one arrival finding the queue empty, typically the mean service time
+     * @param minThreshold The average queue length below which no user is dropped
+     * @param maxThreshold The average queue length above which all the incoming users are dropped
+     * @param maxDropProbability The drop probability when the average queue length reaches the max threshold
+     * @param weight The weight of the current queue length in the average, in (0, 1]
+     * @param uniformStream The stream of uniform numbers in [0, 1) used to drop users at random
+     */
+    public RandomEarlyDetectionDropPolicy(final FiniteUserQueue userQueue, final double idleSlotTime, final double minThreshold, final double maxThreshold, final double maxDropProbability, final double weight, final NumericStream uniformStream) {
+        this(userQueue, userQueue, idleSlotTime, minThreshold, maxThreshold, maxDropProbability, weight, uniformStream);
+
+        if (idleSlotTime <= 0) {
+            throw new IllegalArgumentException("Invalid RED idle slot time");
+        }
+    }
+
+    private RandomEarlyDetectionDropPolicy(final UserQueue userQueue, final FiniteUserQueue finiteUserQueue, final double idleSlotTime, final double minThreshold, final double maxThreshold, final double maxDropProbability, final double weight, final NumericStream uniformStream) {
+        super(userQueue);
+
+        if ((minThreshold >= maxThreshold) || (weight <= 0) || (weight > 1)) {
+            throw new IllegalArgumentException("Invalid RED parameters");
+        }
+        this.minThreshold = minThreshold;
+        this.maxThreshold = maxThreshold;
+        this.maxDropProbability = maxDropProbability;
+        this.weight = weight;
+        this.uniformStream = uniformStream;
+        this.finiteUserQueue = finiteUserQueue;
+        this.idleSlotTime = idleSlotTime;
+
+        averageQueueLength = 0.0;
+    }
+
+    public DropDecision getDecisionFor(final User u) {
+        UserQueue q = getImplicitInput();
+
+        if ((finiteUserQueue != null) && q.isEmpty()) {
+            averageQueueLength *= Math.pow(1.0 - weight, finiteUserQueue.getIdleTime() / idleSlotTime);
+        } else {
+            averageQueueLength += weight * (q.getEnqueuedUsers() - averageQueueLength);
+        }
+
+        if (q.isFull() || (averageQueueLength >= maxThreshold)) {
+            return DropDecision.DROP_INCOMING;
+        }
+        if (averageQueueLength < minThreshold) {
+            return DropDecision.ACCEPT;
+        }
+
+        double p = maxDropProbability * (averageQueueLength - minThreshold) / (maxThreshold - minThreshold);
+
+        return (uniformStream.getNext().doubleValue() < p) ? DropDecision.DROP_INCOMING : DropDecision.ACCEPT;
+    }
+
+    /**
+     * Gets the current average queue length
+     * @return The average queue length
+     */
+    public double getAverageQueueLength() {
+        return averageQueueLength;
+    }
+
+    public Object saveState() {
+        return averageQueueLength;
+    }
+
+    public void restoreState(final Object state) {
+        averageQueueLength = (Double) state;
+    }
+}
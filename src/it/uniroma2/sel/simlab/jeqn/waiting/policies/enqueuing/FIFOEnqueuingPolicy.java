@@ -41,6 +41,6 @@ public class FIFOEnqueuingPolicy extends ImplicitButNotExplicitInputOnlyDependen
     }
     
     public Integer getDecision() {
-        return this.getImplicitInput().toArray().length; 
+        return this.getImplicitInput().size();
     }    
 }
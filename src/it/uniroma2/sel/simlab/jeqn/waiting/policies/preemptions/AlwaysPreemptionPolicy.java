@@ -22,6 +22,7 @@
 
 package it.uniroma2.sel.simlab.jeqn.waiting.policies.preemptions;
 
+import it.uniroma2.sel.simlab.jeqn.policies.BooleanPolicy;
 import it.uniroma2.sel.simlab.jeqn.policies.ExplicitInputPolicy;
 import it.uniroma2.sel.simlab.jeqn.users.User;
 import java.util.List;
@@ -32,13 +33,17 @@ import java.util.List;
  *
  * @author Daniele Gianni
  */
-public class AlwaysPreemptionPolicy implements ExplicitInputPolicy<List<User>, Boolean> {
+public class AlwaysPreemptionPolicy implements ExplicitInputPolicy<List<User>, Boolean>, BooleanPolicy<List<User>> {
     
     /** Creates a new instance of AlwaysPreemptionPolicy */
     public AlwaysPreemptionPolicy() {
     }    
 
     public Boolean getDecisionFor(final List<User> lu) {
-        return new Boolean(true);
+        return Boolean.TRUE;
+    }
+
+    public boolean getBooleanDecisionFor(final List<User> lu) {
+        return true;
     }
 }
@@ -29,7 +29,8 @@ import it.uniroma2.sel.simlab.jeqn.users.User;
 import java.util.List;
 
 /** Implements a generic User Priority Preemption Policy. The preemption decision is made upon
- * the {@code compareTo} method of decision data extracted from the given users. 
+ * the {@code compareTo} method of decision data extracted from the given users. Users are
+ * compared directly, by their numeric identifiers.
  *
  * @author Daniele Gianni
  */
@@ -42,11 +43,6 @@ public class UserPriorityPreemptionPolicy extends ImplicitAndExplicitInputDepend
 
     public Boolean getDecisionFor(User u) {
                         
-        Comparable underProcessing = (Comparable )getImplicitInput();
-        Comparable newEntry = (Comparable )u;
-        
-        int comparisonResult = underProcessing.compareTo(newEntry);
-        
-        return (comparisonResult < 0);
+        return (getImplicitInput().compareTo(u) < 0);
     }    
 }
@@ -0,0 +1,87 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.policies.selections;
+
+import it.uniroma2.sel.simlab.jeqn.general.Checkpointable;
+import it.uniroma2.sel.simlab.jeqn.policies.StateOnlyDependentPolicy;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserMultiQueue;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserQueue;
+
+/** Implements a selection policy that visits the user queues cyclically, in round-robin
+ * order, skipping the empty ones through the occupancy bitmap of the multi queue.
+ *
+ * @author Daniele Gianni
+ */
+public class CyclicSelectionPolicy extends StateOnlyDependentPolicy<Integer, UserQueue> implements Checkpointable {
+
+    private UserMultiQueue userMultiQueue;
+
+    /**
+     * Creates a new instance of CyclicSelectionPolicy
+     * @param initialQueue The queue visited before the first decision; the first decision is the next non empty queue
+     * @param userMultiQueue The multi queue upon which the decision is made. It can also be set afterwards, as it needs the policy to be built.
+     */
+    public CyclicSelectionPolicy(final Integer initialQueue, final UserMultiQueue userMultiQueue) {
+        super(initialQueue);
+
+        setUserMultiQueue(userMultiQueue);
+    }
+
+    public UserQueue getDecision() {
+        int q = userMultiQueue.nextNonEmptyQueue(state + 1);
+
+        if (q < 0) {
+            // wraps around, up to the current queue
+            q = userMultiQueue.nextNonEmptyQueue(0);
+        }
+        if (q >= 0) {
+            state = q;
+        }
+
+        return userMultiQueue.getUserQueue(state);
+    }
+
+    /**
+     * Gets the internal multi-queue associated to this policy
+     * @return The multi-queue system
+     */
+    public UserMultiQueue getUserMultiQueue() {
+        return userMultiQueue;
+    }
+
+    /**
+     * Sets the internal multi-queue associated to this policy
+     * @param q The multi-queue system
+     */
+    public void setUserMultiQueue(final UserMultiQueue q) {
+        userMultiQueue = q;
+    }
+
+    public Object saveState() {
+        return state;
+    }
+
+    public void restoreState(final Object s) {
+        state = (Integer) s;
+    }
+}
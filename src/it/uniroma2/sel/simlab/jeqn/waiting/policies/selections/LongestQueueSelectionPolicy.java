@@ -26,7 +26,8 @@ import it.uniroma2.sel.simlab.jeqn.policies.ImplicitButNotExplicitInputOnlyDepen
 import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserMultiQueue;
 import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserQueue;
 
-/** Implements a selection policy that picks up the longest queue
+/** Implements a selection policy that picks up the longest queue.
+ * The decision is read from the queue length index of the multi queue.
  *
  * @author Daniele Gianni
  */
@@ -42,15 +43,7 @@ public class LongestQueueSelectionPolicy extends ImplicitButNotExplicitInputOnly
 
     public UserQueue getDecision() {
         
-        UserQueue longestQueue = implicitInput.getUserQueue(0);
-        
-        for (UserQueue uq : implicitInput.getUserQueues()) {
-            if (uq.getEnqueuedUsers() > longestQueue.getEnqueuedUsers()) {
-                longestQueue = uq;
-            }
-        }
-        
-        return longestQueue;
+        return implicitInput.getLongestQueue();
     }
     
 }
@@ -23,20 +23,27 @@
 package it.uniroma2.sel.simlab.jeqn.waiting.policies.selections;
 
 import it.uniroma2.sel.simlab.jeqn.policies.StateOnlyDependentPolicy;
+import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserMultiQueue;
 import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserQueue;
 
 import java.util.List;
+import it.uniroma2.sel.simlab.jeqn.general.Checkpointable;
 
 enum Direction {UP, DOWN};
 
-/** Implements a selection policy that scans all the user queues
+/** Implements a selection policy that scans all the user queues. When built on a
+ * {@code UserMultiQueue} the empty queues are skipped through its occupancy bitmap,
+ * otherwise they are visited one at a time.
  *
  * @author Daniele Gianni
  */
-public class SCANSelectionPolicy extends StateOnlyDependentPolicy<Integer, UserQueue> {
+public class SCANSelectionPolicy extends StateOnlyDependentPolicy<Integer, UserQueue> implements Checkpointable {
     
     private Direction direction;
     private List<UserQueue> userMultiQueue;    
+
+    // the multi queue providing the occupancy bitmap, if any
+    private UserMultiQueue indexedMultiQueue;
     
     /**
      * Creates a new instance of SCANSelectionPolicy
@@ -49,8 +56,25 @@ public class SCANSelectionPolicy extends StateOnlyDependentPolicy<Integer, UserQ
         setUserMultiQueue(userMultiQueue);        
         setDirection(Direction.UP);
     }
+
+    /**
+     * Creates a new instance of SCANSelectionPolicy that uses the occupancy bitmap of the
+     * given multi queue. The multi queue can also be set afterwards, as it needs the
+     * policy to be built.
+     * @param initialQueue The queue it starts with
+     * @param userMultiQueue The multi queue upon which the decision is made
+     */
+    public SCANSelectionPolicy(final Integer initialQueue, final UserMultiQueue userMultiQueue) {
+        super(initialQueue);
+
+        setIndexedMultiQueue(userMultiQueue);
+        setDirection(Direction.UP);
+    }
     
     public UserQueue getDecision() {
+        if (indexedMultiQueue != null) {
+            return getIndexedDecision();
+        }
                 
         do {
             if (getDirection().equals(Direction.UP)) {
@@ -73,6 +97,38 @@ public class SCANSelectionPolicy extends StateOnlyDependentPolicy<Integer, UserQ
         
         return userMultiQueue.get(state); // getUserQueue(state);
     }
+
+    /*
+     * visits the queues in the same order as above, jumping over the empty ones. Three
+     * sweeps (up, down, up) cover all the queues from any position
+     */
+    private UserQueue getIndexedDecision() {
+        int last = userMultiQueue.size() - 1;
+
+        for (int sweep = 0; (sweep < 3) && (last > 0); sweep++) {
+            int q;
+
+            if (getDirection().equals(Direction.UP)) {
+                q = (state < last) ? indexedMultiQueue.nextNonEmptyQueue(state + 1) : -1;
+                if (q >= 0) {
+                    state = q;
+                    return userMultiQueue.get(state);
+                }
+                setDirection(Direction.DOWN);
+                state = last;
+            } else { // Direction.DOWN
+                q = (state > 0) ? indexedMultiQueue.previousNonEmptyQueue(state - 1) : -1;
+                if (q >= 0) {
+                    state = q;
+                    return userMultiQueue.get(state);
+                }
+                setDirection(Direction.UP);
+                state = 0;
+            }
+        }
+
+        return userMultiQueue.get(state);
+    }
     
     /**
      * Gets the internal multi-queue associated to this policy
@@ -90,6 +146,19 @@ public class SCANSelectionPolicy extends StateOnlyDependentPolicy<Integer, UserQ
         userMultiQueue = q;
     }
 
+    /**
+     * Sets the multi queue whose occupancy bitmap is used to skip the empty queues
+     * @param q The multi queue
+     */
+    @SuppressWarnings("unchecked")
+    public void setIndexedMultiQueue(final UserMultiQueue q) {
+        indexedMultiQueue = q;
+
+        if (q != null) {
+            setUserMultiQueue((List<UserQueue>) q.getUserQueues());
+        }
+    }
+
     /**
      * Gets the direction property used by this policy. Direction is implemented as an enumerator that assumes the values {@code UP} or {@code DOWN}
      * @return The current scanning direction
@@ -106,4 +175,13 @@ public class SCANSelectionPolicy extends StateOnlyDependentPolicy<Integer, UserQ
     public void setDirection(Direction direction) {
         this.direction = direction;
     }
+
+    public Object saveState() {
+        return new Object[] {state, direction};
+    }
+
+    public void restoreState(final Object s) {
+        state = (Integer) ((Object[]) s)[0];
+        direction = (Direction) ((Object[]) s)[1];
+    }
 }
@@ -26,7 +26,8 @@ import it.uniroma2.sel.simlab.jeqn.policies.ImplicitButNotExplicitInputOnlyDepen
 import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserMultiQueue;
 import it.uniroma2.sel.simlab.jeqn.waiting.storages.UserQueue;
 
-/** Implements a selection policy that pick up the short queue
+/** Implements a selection policy that pick up the short queue among the non empty ones.
+ * The decision is read from the queue length index of the multi queue.
  *
  * @author Daniele Gianni
  */
@@ -42,22 +43,7 @@ public class ShortestQueueSelectionPolicy extends ImplicitButNotExplicitInputOnl
 
     public UserQueue getDecision() {
         
-        if (implicitInput.isEmpty()) {
-           // System.out.println("Multi QUEUE EMPTY!!!!!!!!");
-        }
-        UserQueue shortestQueue = implicitInput.getUserQueue(0);
-        
-        for (UserQueue uq : implicitInput.getUserQueues()) {            
-            if (uq.isFull()) {
-                if (uq.getEnqueuedUsers() < shortestQueue.getEnqueuedUsers()) {
-                    shortestQueue = uq;
-                } else if (shortestQueue.isEmpty()) {
-                    shortestQueue = uq;
-                }                              
-            }
-        }
-        
-        return shortestQueue;
+        return implicitInput.getShortestNonEmptyQueue();
     }
     
 }
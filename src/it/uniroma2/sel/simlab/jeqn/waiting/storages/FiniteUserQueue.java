@@ -23,17 +23,27 @@
 package it.uniroma2.sel.simlab.jeqn.waiting.storages;
 
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNQueueOverflowException;
+import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
 import it.uniroma2.sel.simlab.jeqn.users.User;
 import it.uniroma2.sel.simlab.simarch.data.Time;
 import it.uniroma2.sel.simlab.simarch.interfaces.Layer3ToLayer2;
+import it.uniroma2.sel.simlab.jeqn.general.Checkpointable;
+import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
+import it.uniroma2.sel.simlab.jeqn.waiting.policies.drops.DropDecision;
 
 /**
- * Provides a bounded data structure to store the users
+ * Provides a bounded data structure to store the users. Its state can be saved and
+ * restored only when the underlying queue is {@code Checkpointable}, otherwise
+ * {@code saveState} throws an {@code UnsupportedOperationException}. The user to drop on
+ * overflow is chosen by an optional drop policy, tail drop being the default. The state of
+ * the drop policy is saved with the queue when the policy given is {@code Checkpointable};
+ * a stateful policy wrapped in a mask, such as Random Early Detection, is not reached
+ * through the mask and has to be checkpointed separately.
  *
  * @author Daniele Gianni
  */
 
-public final class FiniteUserQueue implements UserQueue {    
+public final class FiniteUserQueue implements UserQueue, Checkpointable {    
 
     // number of users that could not be admitted on queue and have been lost
     private int dischargedUsers;
@@ -46,8 +56,14 @@ public final class FiniteUserQueue implements UserQueue {
     
     private UserQueue userQueue;
 
+    // the policy choosing the user to drop, tail drop if null
+    private MaskBasePolicy<?, User, ?, DropDecision> dropPolicy;
+
     // interface to SimArch service, needed to retrieve time for statistics computations
     private Layer3ToLayer2 layer3ToLayer2;
+
+    // the time at which the queue last became empty
+    private Time emptySince;
         
     /**
      * Create a new instance of FiniteUserQueue
@@ -86,28 +102,75 @@ public final class FiniteUserQueue implements UserQueue {
     private void initStats() {
         setDischargedUsers(0);        
         setEnqueuedUsers(0);
+
+        emptySince = JEQNTimeFactory.makeFrom(0);
     }
     
     // core methods
     
     public User extract() {
+        return remove(true);
+    }
+
+    public User discard() {
+        return remove(false);
+    }
+
+    /*
+     * removes the next user from the underlying queue, as served or discarded
+     */
+    private User remove(final boolean served) {
         enqueuedUsers--;
-        return userQueue.extract();
+        User u = served ? userQueue.extract() : userQueue.discard();
+
+        if ((layer3ToLayer2 != null) && userQueue.isEmpty()) {
+            emptySince = layer3ToLayer2.getClock();
+        }
+        return u;
     }        
+
+    /**
+     * Gets for how long the queue has been empty, as used by the drop policies that age their
+     * state while the queue is idle
+     * @return The time elapsed since the queue became empty, {@code 0} if it is not empty or
+     * the underlying layer is not set
+     */
+    public double getIdleTime() {
+        if ((layer3ToLayer2 == null) || !userQueue.isEmpty()) {
+            return 0.0;
+        }
+        return layer3ToLayer2.getClock().getValue() - emptySince.getValue();
+    }
     
     public String getStatInfo() {        
         return userQueue.getStatInfo() + "\n" + "Discharged users : " + dischargedUsers;
     }
     
     public void insert(final User u) throws JEQNQueueOverflowException {
-        if (isFull()) {
-            dischargedUsers++;
+        if (offer(u) == u) {
             throw new JEQNQueueOverflowException(u);
-        } else {
-            enqueuedUsers++;
-            userQueue.insert(u);
         }
     }   
+
+    public User offer(final User u) {
+        DropDecision decision = (dropPolicy == null) ? DropDecision.ACCEPT : dropPolicy.getDecisionFor(u);
+
+        if ((decision == DropDecision.DROP_INCOMING) || ((decision == DropDecision.ACCEPT) && isFull())) {
+            dischargedUsers++;
+            return u;
+        }
+
+        User dropped = null;
+        if ((decision == DropDecision.DROP_HEAD) && !isEmpty()) {
+            dropped = discard();
+            dischargedUsers++;
+        }
+
+        enqueuedUsers++;
+        userQueue.offer(u);
+
+        return dropped;
+    }
     
     public boolean isEmpty() {
         return userQueue.isEmpty();
@@ -183,4 +246,41 @@ public final class FiniteUserQueue implements UserQueue {
     public int size() {
         return size;
     }
+
+    /**
+     * Accessor method for the property
+     * @return The policy choosing the user to drop on overflow, {@code null} for tail drop
+     */
+    public MaskBasePolicy<?, User, ?, DropDecision> getDropPolicy() {
+        return dropPolicy;
+    }
+
+    /**
+     * Accessor method for the property
+     * @param p The policy choosing the user to drop on overflow, {@code null} for tail drop
+     */
+    public void setDropPolicy(final MaskBasePolicy<?, User, ?, DropDecision> p) {
+        dropPolicy = p;
+    }
+
+    public Object saveState() {
+        if (!(userQueue instanceof Checkpointable)) {
+            throw new UnsupportedOperationException("Cannot checkpoint a FiniteUserQueue on a " + userQueue.getClass().getName() + ", which is not Checkpointable");
+        }
+        Object dropPolicyState = (dropPolicy instanceof Checkpointable) ? ((Checkpointable) dropPolicy).saveState() : null;
+
+        return new Object[] {dischargedUsers, enqueuedUsers, ((Checkpointable) userQueue).saveState(), emptySince, dropPolicyState};
+    }
+
+    public void restoreState(final Object state) {
+        Object[] s = (Object[]) state;
+
+        dischargedUsers = (Integer) s[0];
+        enqueuedUsers = (Integer) s[1];
+        ((Checkpointable) userQueue).restoreState(s[2]);
+        emptySince = (Time) s[3];
+        if (dropPolicy instanceof Checkpointable) {
+            ((Checkpointable) dropPolicy).restoreState(s[4]);
+        }
+    }
 }
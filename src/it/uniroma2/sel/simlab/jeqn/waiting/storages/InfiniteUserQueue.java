@@ -33,12 +33,14 @@ import it.uniroma2.sel.simlab.statistics.estimators.DiscretePopulationMean;
 
 import java.util.ArrayList;
 import java.util.List;
+import it.uniroma2.sel.simlab.jeqn.general.Checkpointable;
 
-/** Provides an unbounded UserQueue
+/** Provides an unbounded UserQueue. The saved state includes the enqueued users and the
+ * counters, while the statistics estimators are not rolled back.
  *
  * @author  Daniele Gianni
  */
-public final class InfiniteUserQueue implements UserQueue {
+public final class InfiniteUserQueue implements UserQueue, Checkpointable {
 
     // list of the user currently stored in the queue
     private List<User> users;
@@ -115,6 +117,17 @@ public final class InfiniteUserQueue implements UserQueue {
         
     // core methods
     public User extract() {
+        return remove(true);
+    }
+
+    public User discard() {
+        return remove(false);
+    }
+
+    /*
+     * removes the first user, sampling its waiting time if it is served
+     */
+    private User remove(final boolean served) {
     	
     	if (layer3ToLayer2.getClock().decreasedBy(timeSinceLastComingInOrOut).getValue()!=0) {
     		queueLengthMean.insertNewSample(users.size(), layer3ToLayer2.getClock().decreasedBy(timeSinceLastComingInOrOut).getValue());
@@ -126,7 +139,9 @@ public final class InfiniteUserQueue implements UserQueue {
         
         double arrivalTime = arrivalTimes.remove(0).getValue();
         
-        queueWaitingTimeMean.insertNewSample(layer3ToLayer2.getClock().getValue() - arrivalTime);//user.getComingInTime());
+        if (served) {
+            queueWaitingTimeMean.insertNewSample(layer3ToLayer2.getClock().getValue() - arrivalTime);//user.getComingInTime());
+        }
         
         enqueuedUsers--;
         
@@ -149,6 +164,12 @@ public final class InfiniteUserQueue implements UserQueue {
         
         numberOfUsersPassedThrough++;                     
     }
+
+    public User offer(final User u) {
+        insert(u);
+
+        return null;
+    }
                 
     public String getStatInfo() {
         return "\nQueue Length Mean Value : " + queueLengthMean.meanValue() + "\n" +
@@ -214,4 +235,43 @@ public final class InfiniteUserQueue implements UserQueue {
     public int size() {
         return users.size();
     }
+
+    public Object saveState() {
+        return new SavedState(this);
+    }
+
+    public void restoreState(final Object state) {
+        SavedState s = (SavedState) state;
+
+        users.clear();
+        users.addAll(s.users);
+        arrivalTimes.clear();
+        arrivalTimes.addAll(s.arrivalTimes);
+
+        timeSinceLastComingInOrOut = s.timeSinceLastComingInOrOut;
+        enqueuedUsers = s.enqueuedUsers;
+        maxUsers = s.maxUsers;
+        numberOfUsersPassedThrough = s.numberOfUsersPassedThrough;
+    }
+
+    /*
+     * the state saved by saveState
+     */
+    private static final class SavedState {
+        private final List<User> users;
+        private final List<Time> arrivalTimes;
+        private final Time timeSinceLastComingInOrOut;
+        private final int enqueuedUsers;
+        private final int maxUsers;
+        private final int numberOfUsersPassedThrough;
+
+        private SavedState(final InfiniteUserQueue q) {
+            users = new ArrayList<User>(q.users);
+            arrivalTimes = new ArrayList<Time>(q.arrivalTimes);
+            timeSinceLastComingInOrOut = q.timeSinceLastComingInOrOut;
+            enqueuedUsers = q.enqueuedUsers;
+            maxUsers = q.maxUsers;
+            numberOfUsersPassedThrough = q.numberOfUsersPassedThrough;
+        }
+    }
 }
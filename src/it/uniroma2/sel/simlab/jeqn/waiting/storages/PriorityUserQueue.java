@@ -0,0 +1,367 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.storages;
+
+import it.uniroma2.sel.simlab.jeqn.general.Checkpointable;
+import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
+import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.simarch.data.Time;
+import it.uniroma2.sel.simlab.simarch.interfaces.Layer3ToLayer2;
+
+import it.uniroma2.sel.simlab.statistics.estimators.ContinuousPopulationMean;
+import it.uniroma2.sel.simlab.statistics.estimators.DiscretePopulationMean;
+
+/** Provides an unbounded UserQueue that extracts the user with the lowest key first.
+ * The users are kept in a d-ary heap on a {@code double} key, given by a
+ * {@code UserKeyExtractor}; users with the same key are extracted in arrival order.
+ * Insert and extract take O(log n) time and allocate nothing but when the capacity
+ * is doubled. The statistics are the same collected by {@code InfiniteUserQueue}. The
+ * saved state includes the heap and the counters, while the statistics estimators are
+ * not rolled back.
+ *
+ * @author  Daniele Gianni
+ * @see UserKeyExtractor
+ */
+public final class PriorityUserQueue implements UserQueue, Checkpointable {
+
+    private static final int DEFAULT_ARITY = 4;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final UserKeyExtractor keyExtractor;
+
+    // number of children of each heap node
+    private final int arity;
+
+    // the heap, in parallel arrays
+    private User[] users;
+    private double[] keys;
+    private long[] sequenceNumbers;
+    private double[] arrivalTimes;
+
+    // number of users in the heap
+    private int count;
+
+    // sequence number of the next incoming user, for the FIFO ties
+    private long nextSequenceNumber;
+
+    // time since last activity - for the determination of busy/idle cycles
+    private double timeSinceLastComingInOrOut;
+
+    // statistics
+    private ContinuousPopulationMean queueLengthMean;
+    private DiscretePopulationMean queueWaitingTimeMean;
+
+    private Layer3ToLayer2 layer3ToLayer2;
+
+    // max length of the queue
+    private int maxUsers;
+
+    private int numberOfUsersPassedThrough;
+
+    /**
+     * Creates a new instance of PriorityUserQueue
+     * @param keyExtractor Gives the key of each user
+     * @param arity The number of children of each heap node, at least 2
+     */
+    public PriorityUserQueue(final UserKeyExtractor keyExtractor, final int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("The heap arity must be at least 2");
+        }
+        this.keyExtractor = keyExtractor;
+        this.arity = arity;
+
+        users = new User[DEFAULT_CAPACITY];
+        keys = new double[DEFAULT_CAPACITY];
+        sequenceNumbers = new long[DEFAULT_CAPACITY];
+        arrivalTimes = new double[DEFAULT_CAPACITY];
+
+        init();
+    }
+
+    /**
+     * Creates a new instance of PriorityUserQueue on a 4-ary heap
+     * @param keyExtractor Gives the key of each user
+     */
+    public PriorityUserQueue(final UserKeyExtractor keyExtractor) {
+        this(keyExtractor, DEFAULT_ARITY);
+    }
+
+    // init methods
+
+    private void init() {
+        count = 0;
+        nextSequenceNumber = 0;
+
+        initStats();
+    }
+
+    private void initStats() {
+        queueLengthMean = new ContinuousPopulationMean();
+        queueWaitingTimeMean = new DiscretePopulationMean();
+
+        maxUsers = 0;
+        numberOfUsersPassedThrough = 0;
+        timeSinceLastComingInOrOut = 0.0;
+    }
+
+    // core methods
+    public User extract() {
+        return remove(true);
+    }
+
+    public User discard() {
+        return remove(false);
+    }
+
+    /*
+     * removes the next user, sampling its waiting time if it is served
+     */
+    private User remove(final boolean served) {
+        double now = layer3ToLayer2.getClock().getValue();
+
+        if (now - timeSinceLastComingInOrOut != 0) {
+            queueLengthMean.insertNewSample(count, now - timeSinceLastComingInOrOut);
+        }
+
+        timeSinceLastComingInOrOut = now;
+
+        User user = users[0];
+        if (served) {
+            queueWaitingTimeMean.insertNewSample(now - arrivalTimes[0]);
+        }
+
+        count--;
+        if (count > 0) {
+            siftDown(users[count], keys[count], sequenceNumbers[count], arrivalTimes[count]);
+        }
+        users[count] = null;
+
+        return user;
+    }
+
+    public void insert(final User u) {
+        double now = layer3ToLayer2.getClock().getValue();
+
+        queueLengthMean.insertNewSample(count, now - timeSinceLastComingInOrOut);
+
+        timeSinceLastComingInOrOut = now;
+
+        if (count == users.length) {
+            grow();
+        }
+
+        siftUp(count++, u, keyExtractor.keyOf(u), nextSequenceNumber++, now);
+
+        if (count > maxUsers) maxUsers = count;
+
+        numberOfUsersPassedThrough++;
+    }
+
+    public User offer(final User u) {
+        insert(u);
+
+        return null;
+    }
+
+    /*
+     * says whether the entry (k1, s1) has to be extracted before (k2, s2)
+     */
+    private static boolean precedes(final double k1, final long s1, final double k2, final long s2) {
+        return (k1 < k2) || ((k1 == k2) && (s1 < s2));
+    }
+
+    private void siftUp(int i, final User u, final double k, final long s, final double t) {
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            if (!precedes(k, s, keys[parent], sequenceNumbers[parent])) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        set(i, u, k, s, t);
+    }
+
+    private void siftDown(final User u, final double k, final long s, final double t) {
+        int i = 0;
+
+        while (true) {
+            int first = i * arity + 1;
+            if (first >= count) {
+                break;
+            }
+            int last = Math.min(first + arity, count);
+
+            int best = first;
+            for (int c = first + 1; c < last; c++) {
+                if (precedes(keys[c], sequenceNumbers[c], keys[best], sequenceNumbers[best])) {
+                    best = c;
+                }
+            }
+            if (!precedes(keys[best], sequenceNumbers[best], k, s)) {
+                break;
+            }
+            move(best, i);
+            i = best;
+        }
+        set(i, u, k, s, t);
+    }
+
+    private void move(final int from, final int to) {
+        users[to] = users[from];
+        keys[to] = keys[from];
+        sequenceNumbers[to] = sequenceNumbers[from];
+        arrivalTimes[to] = arrivalTimes[from];
+    }
+
+    private void set(final int i, final User u, final double k, final long s, final double t) {
+        users[i] = u;
+        keys[i] = k;
+        sequenceNumbers[i] = s;
+        arrivalTimes[i] = t;
+    }
+
+    private void grow() {
+        int n = users.length << 1;
+
+        User[] u = new User[n];
+        System.arraycopy(users, 0, u, 0, count);
+        users = u;
+
+        double[] k = new double[n];
+        System.arraycopy(keys, 0, k, 0, count);
+        keys = k;
+
+        long[] s = new long[n];
+        System.arraycopy(sequenceNumbers, 0, s, 0, count);
+        sequenceNumbers = s;
+
+        double[] t = new double[n];
+        System.arraycopy(arrivalTimes, 0, t, 0, count);
+        arrivalTimes = t;
+    }
+
+    public String getStatInfo() {
+        return "\nQueue Length Mean Value : " + queueLengthMean.meanValue() + "\n" +
+                "Waiting Time Mean Value : " + queueWaitingTimeMean.meanValue() + "\n" +
+                "Max users in queue      : " + maxUsers + "\n" +
+                "Number of users         : " + numberOfUsersPassedThrough + "\n" +
+                "Users still in queue    : " + count + "\n" +
+                "Sample size             : " + queueWaitingTimeMean.sampleSize();
+    }
+
+    // accessor method
+
+    /**
+     * Returns the user that will be extracted next, without removing it
+     * @return the user, or {@code null} if the queue is empty
+     */
+    public User peek() {
+        return (count == 0) ? null : users[0];
+    }
+
+    public int getEnqueuedUsers() {
+        return count;
+    }
+
+    public int getNumberOfUsersPassedThrough() {
+        return numberOfUsersPassedThrough;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public boolean isFull() {
+        return !isEmpty();
+    }
+
+    public Time nextUserExtractingTime() {
+        return JEQNTimeFactory.makeFrom(Time.ZERO);
+    }
+
+    public void setLayer3ToLayer2(final Layer3ToLayer2 l) {
+        layer3ToLayer2 = l;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public Object saveState() {
+        return new SavedState(this);
+    }
+
+    public void restoreState(final Object state) {
+        SavedState s = (SavedState) state;
+
+        int capacity = users.length;
+        while (capacity < s.users.length) {
+            capacity <<= 1;
+        }
+        users = new User[capacity];
+        keys = new double[capacity];
+        sequenceNumbers = new long[capacity];
+        arrivalTimes = new double[capacity];
+        System.arraycopy(s.users, 0, users, 0, s.users.length);
+        System.arraycopy(s.keys, 0, keys, 0, s.keys.length);
+        System.arraycopy(s.sequenceNumbers, 0, sequenceNumbers, 0, s.sequenceNumbers.length);
+        System.arraycopy(s.arrivalTimes, 0, arrivalTimes, 0, s.arrivalTimes.length);
+        count = s.users.length;
+
+        nextSequenceNumber = s.nextSequenceNumber;
+        timeSinceLastComingInOrOut = s.timeSinceLastComingInOrOut;
+        maxUsers = s.maxUsers;
+        numberOfUsersPassedThrough = s.numberOfUsersPassedThrough;
+    }
+
+    /*
+     * the state saved by saveState, with the heap in its array layout
+     */
+    private static final class SavedState {
+        private final User[] users;
+        private final double[] keys;
+        private final long[] sequenceNumbers;
+        private final double[] arrivalTimes;
+        private final long nextSequenceNumber;
+        private final double timeSinceLastComingInOrOut;
+        private final int maxUsers;
+        private final int numberOfUsersPassedThrough;
+
+        private SavedState(final PriorityUserQueue q) {
+            users = new User[q.count];
+            keys = new double[q.count];
+            sequenceNumbers = new long[q.count];
+            arrivalTimes = new double[q.count];
+            System.arraycopy(q.users, 0, users, 0, q.count);
+            System.arraycopy(q.keys, 0, keys, 0, q.count);
+            System.arraycopy(q.sequenceNumbers, 0, sequenceNumbers, 0, q.count);
+            System.arraycopy(q.arrivalTimes, 0, arrivalTimes, 0, q.count);
+
+            nextSequenceNumber = q.nextSequenceNumber;
+            timeSinceLastComingInOrOut = q.timeSinceLastComingInOrOut;
+            maxUsers = q.maxUsers;
+            numberOfUsersPassedThrough = q.numberOfUsersPassedThrough;
+        }
+    }
+}
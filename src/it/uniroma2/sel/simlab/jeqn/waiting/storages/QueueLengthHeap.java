@@ -0,0 +1,152 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.storages;
+
+/** Indexed binary heap over the queues of a {@code UserMultiQueue}, ordered by queue
+ * length. The lengths are read from an array shared with the multi queue, which calls
+ * {@code update} whenever the length of a queue changes. Ties are broken in favour
+ * of the queue with the lowest number.
+ *
+ * @author Daniele Gianni
+ */
+final class QueueLengthHeap {
+
+    /**
+     * The shortest queue at the top
+     */
+    static final int SHORTEST = 0;
+
+    /**
+     * The longest queue at the top
+     */
+    static final int LONGEST = 1;
+
+    /**
+     * The shortest non empty queue at the top, the empty queues coming last
+     */
+    static final int SHORTEST_NON_EMPTY = 2;
+
+    private final int order;
+
+    // the queue lengths, indexed by queue number
+    private final int[] lengths;
+
+    // the queue numbers, in heap order
+    private final int[] heap;
+
+    // the position in the heap of each queue number
+    private final int[] positions;
+
+    QueueLengthHeap(final int[] lengths, final int order) {
+        this.order = order;
+        this.lengths = lengths;
+
+        heap = new int[lengths.length];
+        positions = new int[lengths.length];
+
+        for (int i = 0; i < lengths.length; i++) {
+            heap[i] = i;
+            positions[i] = i;
+        }
+        for (int i = (lengths.length >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Gets the number of the queue at the top
+     * @return The queue number
+     */
+    int top() {
+        return heap[0];
+    }
+
+    /**
+     * Restores the heap order after the length of the given queue changed
+     * @param q The queue number
+     */
+    void update(final int q) {
+        int i = positions[q];
+
+        if ((i > 0) && precedes(q, heap[(i - 1) >>> 1])) {
+            siftUp(i);
+        } else {
+            siftDown(i);
+        }
+    }
+
+    private int key(final int q) {
+        switch (order) {
+            case LONGEST:
+                return -lengths[q];
+            case SHORTEST_NON_EMPTY:
+                return (lengths[q] == 0) ? Integer.MAX_VALUE : lengths[q];
+            default:
+                return lengths[q];
+        }
+    }
+
+    private boolean precedes(final int q1, final int q2) {
+        int k1 = key(q1);
+        int k2 = key(q2);
+
+        return (k1 < k2) || ((k1 == k2) && (q1 < q2));
+    }
+
+    private void siftUp(int i) {
+        int q = heap[i];
+
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!precedes(q, heap[parent])) {
+                break;
+            }
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(q, i);
+    }
+
+    private void siftDown(int i) {
+        int q = heap[i];
+        int half = heap.length >>> 1;
+
+        while (i < half) {
+            int child = (i << 1) + 1;
+            if ((child + 1 < heap.length) && precedes(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!precedes(heap[child], q)) {
+                break;
+            }
+            place(heap[child], i);
+            i = child;
+        }
+        place(q, i);
+    }
+
+    private void place(final int q, final int i) {
+        heap[i] = q;
+        positions[q] = i;
+    }
+}
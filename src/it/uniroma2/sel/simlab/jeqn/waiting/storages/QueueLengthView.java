@@ -0,0 +1,52 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.storages;
+
+/** Defines a read-only view of the lengths of a set of numbered queues, such as the queues of
+ * a {@code UserMultiQueue} or the queues of the waiting systems downstream of a router. The view
+ * is what the load balancing policies need to make their decision, and it also allows them to
+ * be notified when a queue becomes idle.
+ *
+ * @author  Daniele Gianni
+ */
+public interface QueueLengthView {
+
+    /**
+     * Gets the number of queues
+     * @return The number of queues, numbered from {@code 0}
+     */
+    public int getNumberOfQueues();
+
+    /**
+     * Gets the length of a queue
+     * @param i The queue number
+     * @return The number of users in the queue
+     */
+    public int getQueueLength(int i);
+
+    /**
+     * Sets the listener to notify when a queue becomes idle
+     * @param l The listener, {@code null} for none
+     */
+    public void setIdleQueueListener(IdleQueueListener l);
+}
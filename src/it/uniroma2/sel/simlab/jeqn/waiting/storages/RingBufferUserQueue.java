@@ -0,0 +1,301 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.storages;
+
+import it.uniroma2.sel.simlab.jeqn.general.Checkpointable;
+import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
+import it.uniroma2.sel.simlab.jeqn.users.User;
+import it.uniroma2.sel.simlab.simarch.data.Time;
+import it.uniroma2.sel.simlab.simarch.interfaces.Layer3ToLayer2;
+
+import it.uniroma2.sel.simlab.statistics.estimators.ContinuousPopulationMean;
+import it.uniroma2.sel.simlab.statistics.estimators.DiscretePopulationMean;
+
+/** Provides an unbounded FIFO or LIFO UserQueue backed by a growable circular array.
+ * The arrival times are kept in a parallel array of {@code double}, so that insert and
+ * extract take constant time and allocate nothing but when the capacity is doubled.
+ * The statistics are the same collected by {@code InfiniteUserQueue}.
+ *
+ * @author  Daniele Gianni
+ * @see InfiniteUserQueue
+ */
+public final class RingBufferUserQueue implements UserQueue, Checkpointable {
+
+    /**
+     * The order in which the users are extracted
+     */
+    public enum Discipline {FIFO, LIFO};
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final Discipline discipline;
+
+    // the users, from head (inclusive) for count positions, wrapping around
+    private User[] users;
+
+    // the arrival time of each of the users above
+    private double[] arrivalTimes;
+
+    // index of the first user
+    private int head;
+
+    // number of users in the buffer
+    private int count;
+
+    // time since last activity - for the determination of busy/idle cycles
+    private double timeSinceLastComingInOrOut;
+
+    // statistics
+    private ContinuousPopulationMean queueLengthMean;
+    private DiscretePopulationMean queueWaitingTimeMean;
+
+    private Layer3ToLayer2 layer3ToLayer2;
+
+    // max length of the queue
+    private int maxUsers;
+
+    private int numberOfUsersPassedThrough;
+
+    /**
+     * Creates a new instance of RingBufferUserQueue
+     * @param discipline The order in which the users are extracted
+     * @param initialCapacity The number of users that can be stored before the buffer grows
+     */
+    public RingBufferUserQueue(final Discipline discipline, final int initialCapacity) {
+        this.discipline = discipline;
+
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1;
+        users = new User[capacity];
+        arrivalTimes = new double[capacity];
+
+        init();
+    }
+
+    /**
+     * Creates a new instance of RingBufferUserQueue with a default initial capacity
+     * @param discipline The order in which the users are extracted
+     */
+    public RingBufferUserQueue(final Discipline discipline) {
+        this(discipline, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new instance of RingBufferUserQueue with the FIFO discipline
+     */
+    public RingBufferUserQueue() {
+        this(Discipline.FIFO);
+    }
+
+    // init methods
+
+    private void init() {
+        head = 0;
+        count = 0;
+
+        initStats();
+    }
+
+    private void initStats() {
+        queueLengthMean = new ContinuousPopulationMean();
+        queueWaitingTimeMean = new DiscretePopulationMean();
+
+        maxUsers = 0;
+        numberOfUsersPassedThrough = 0;
+        timeSinceLastComingInOrOut = 0.0;
+    }
+
+    // core methods
+    public User extract() {
+        return remove(true);
+    }
+
+    public User discard() {
+        return remove(false);
+    }
+
+    /*
+     * removes the next user, sampling its waiting time if it is served
+     */
+    private User remove(final boolean served) {
+        double now = layer3ToLayer2.getClock().getValue();
+
+        if (now - timeSinceLastComingInOrOut != 0) {
+            queueLengthMean.insertNewSample(count, now - timeSinceLastComingInOrOut);
+        }
+
+        timeSinceLastComingInOrOut = now;
+
+        int mask = users.length - 1;
+        int i;
+        if (discipline == Discipline.FIFO) {
+            i = head;
+            head = (head + 1) & mask;
+        } else {
+            i = (head + count - 1) & mask;
+        }
+        count--;
+
+        User user = users[i];
+        users[i] = null;
+
+        if (served) {
+            queueWaitingTimeMean.insertNewSample(now - arrivalTimes[i]);
+        }
+
+        return user;
+    }
+
+    public void insert(final User u) {
+        double now = layer3ToLayer2.getClock().getValue();
+
+        queueLengthMean.insertNewSample(count, now - timeSinceLastComingInOrOut);
+
+        timeSinceLastComingInOrOut = now;
+
+        if (count == users.length) {
+            grow();
+        }
+
+        int i = (head + count) & (users.length - 1);
+        users[i] = u;
+        arrivalTimes[i] = now;
+        count++;
+
+        if (count > maxUsers) maxUsers = count;
+
+        numberOfUsersPassedThrough++;
+    }
+
+    public User offer(final User u) {
+        insert(u);
+
+        return null;
+    }
+
+    // doubles the capacity, moving the users to the start of the new arrays
+    private void grow() {
+        int n = users.length;
+        User[] u = new User[n << 1];
+        double[] t = new double[n << 1];
+
+        int firstPart = n - head;
+        System.arraycopy(users, head, u, 0, firstPart);
+        System.arraycopy(users, 0, u, firstPart, head);
+        System.arraycopy(arrivalTimes, head, t, 0, firstPart);
+        System.arraycopy(arrivalTimes, 0, t, firstPart, head);
+
+        users = u;
+        arrivalTimes = t;
+        head = 0;
+    }
+
+    public String getStatInfo() {
+        return "\nQueue Length Mean Value : " + queueLengthMean.meanValue() + "\n" +
+                "Waiting Time Mean Value : " + queueWaitingTimeMean.meanValue() + "\n" +
+                "Max users in queue      : " + maxUsers + "\n" +
+                "Number of users         : " + numberOfUsersPassedThrough + "\n" +
+                "Users still in queue    : " + count + "\n" +
+                "Sample size             : " + queueWaitingTimeMean.sampleSize();
+    }
+
+    // accessor method
+    public Discipline getDiscipline() {
+        return discipline;
+    }
+
+    public int getEnqueuedUsers() {
+        return count;
+    }
+
+    public int getNumberOfUsersPassedThrough() {
+        return numberOfUsersPassedThrough;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public boolean isFull() {
+        return !isEmpty();
+    }
+
+    public Time nextUserExtractingTime() {
+        return JEQNTimeFactory.makeFrom(Time.ZERO);
+    }
+
+    public void setLayer3ToLayer2(final Layer3ToLayer2 l) {
+        layer3ToLayer2 = l;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public Object saveState() {
+        return new SavedState(this);
+    }
+
+    public void restoreState(final Object state) {
+        SavedState s = (SavedState) state;
+
+        int capacity = users.length;
+        while (capacity < s.users.length) {
+            capacity <<= 1;
+        }
+        users = new User[capacity];
+        arrivalTimes = new double[capacity];
+        System.arraycopy(s.users, 0, users, 0, s.users.length);
+        System.arraycopy(s.arrivalTimes, 0, arrivalTimes, 0, s.arrivalTimes.length);
+        head = 0;
+        count = s.users.length;
+
+        timeSinceLastComingInOrOut = s.timeSinceLastComingInOrOut;
+        maxUsers = s.maxUsers;
+        numberOfUsersPassedThrough = s.numberOfUsersPassedThrough;
+    }
+
+    /*
+     * the state saved by saveState, with the users stored from the head
+     */
+    private static final class SavedState {
+        private final User[] users;
+        private final double[] arrivalTimes;
+        private final double timeSinceLastComingInOrOut;
+        private final int maxUsers;
+        private final int numberOfUsersPassedThrough;
+
+        private SavedState(final RingBufferUserQueue q) {
+            int mask = q.users.length - 1;
+
+            users = new User[q.count];
+            arrivalTimes = new double[q.count];
+            for (int i = 0; i < q.count; i++) {
+                users[i] = q.users[(q.head + i) & mask];
+                arrivalTimes[i] = q.arrivalTimes[(q.head + i) & mask];
+            }
+            timeSinceLastComingInOrOut = q.timeSinceLastComingInOrOut;
+            maxUsers = q.maxUsers;
+            numberOfUsersPassedThrough = q.numberOfUsersPassedThrough;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.storages;
+
+import it.uniroma2.sel.simlab.jeqn.users.User;
+
+/** Extracts the {@code double} key by which a {@code PriorityUserQueue} orders the users.
+ * The key of a user must not change while the user is enqueued.
+ *
+ * @author  Daniele Gianni
+ * @see PriorityUserQueue
+ */
+public interface UserKeyExtractor {
+
+    /**
+     * Orders the users by service request, as in the Short Job First discipline
+     */
+    public static final UserKeyExtractor SERVICE_REQUEST = new UserKeyExtractor() {
+        public double keyOf(final User u) {
+            return u.getServiceRequest().getValue().getValue();
+        }
+    };
+
+    /**
+     * Orders the users by born time, the oldest first
+     */
+    public static final UserKeyExtractor BORN_TIME = new UserKeyExtractor() {
+        public double keyOf(final User u) {
+            return u.getBornTime().getValue();
+        }
+    };
+
+    /**
+     * Returns the key of the given user; users with lower keys are extracted first
+     * @param u the user
+     * @return the key
+     */
+    public double keyOf(User u);
+}
@@ -23,21 +23,36 @@
 package it.uniroma2.sel.simlab.jeqn.waiting.storages;
 
 import it.uniroma2.sel.simlab.jeqn.exceptions.JEQNQueueOverflowException;
+import it.uniroma2.sel.simlab.jeqn.general.Checkpointable;
 import it.uniroma2.sel.simlab.jeqn.general.JEQNTimeFactory;
 import it.uniroma2.sel.simlab.jeqn.policies.masks.MaskBasePolicy;
 import it.uniroma2.sel.simlab.jeqn.users.User;
 import it.uniroma2.sel.simlab.jeqn.waiting.policies.dispatchings.QueueAssigner;
+import it.uniroma2.sel.simlab.jeqn.waiting.times.QueuesSwitchingTimes;
 
 import it.uniroma2.sel.simlab.simarch.data.Time;
 import it.uniroma2.sel.simlab.simarch.interfaces.Layer3ToLayer2;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Implements the structure for a Multi Queue
+ * Implements the structure for a Multi Queue. The lengths of the queues are indexed,
+ * so that the shortest and the longest queue are found in constant time and kept up
+ * to date in O(log k) time for k queues. The index is maintained by {@code insert}
+ * and {@code extract}, hence the queues must not be accessed directly. An occupancy
+ * bitmap allows to find the next non empty queue in either direction by scanning 64
+ * queues at a time. When switching times are set, the time to switch from the queue
+ * last served to the next one is added to the extracting time of the next user.
+ * The length index is exposed as a {@code QueueLengthView}, which reports the queues
+ * that become empty as idle. The saved state includes the state of each queue, which
+ * must be {@code Checkpointable}, and the state of the withdrawer when the policy given is
+ * {@code Checkpointable}; the length index is rebuilt on restore. A stateful policy
+ * wrapped in a mask, as well as the dispatching policy, has to be checkpointed separately.
  * @author Daniele Gianni
  */
-public final class UserMultiQueue implements UserQueue {
+public final class UserMultiQueue implements UserQueue, QueueLengthView, Checkpointable {
 
     // the object that controls the assigments of users to the queues
     private QueueAssigner queueAssigner;
@@ -49,8 +64,34 @@ public final class UserMultiQueue implements UserQueue {
     // the list of all the queues forming the multi-queue structure
     private List<? extends UserQueue> userQueues;
 
+    // the times to switch from a queue to another, none if null
+    private QueuesSwitchingTimes queuesSwitchingTimes;
+
+    // the number of the queue last served, -1 before the first extraction
+    private int previousQueue;
+
+    // the queue selected for the next extraction by nextUserExtractingTime, if any
+    private UserQueue nextQueue;
+
     // interface of SimArch services, needed to collect statistics
     private Layer3ToLayer2 layer3ToLayer2;
+
+    // the number of each queue
+    private Map<UserQueue, Integer> queueNumbers;
+
+    // the length of each queue, indexed by queue number
+    private int[] queueLengths;
+
+    // queue length indexes
+    private QueueLengthHeap shortestQueues;
+    private QueueLengthHeap longestQueues;
+    private QueueLengthHeap shortestNonEmptyQueues;
+
+    // bit i is set if queue i is not empty
+    private long[] occupiedQueues;
+
+    // the listener notified when a queue becomes empty, if any
+    private IdleQueueListener idleQueueListener;
      
     // statistics
     private int usersEnqueued;    
@@ -73,12 +114,50 @@ public final class UserMultiQueue implements UserQueue {
         
         init();
     }
+
+    /**
+     * Creates a new instance of UserMultiQueue with switching times between the queues
+     * @param queueAssigner The component in charge of enqueueing an incoming user to a queue
+     * @param userWithdrawer The component in charge of withdrawing a user from the system
+     * @param userQueues The set of queues making up the multi queue
+     * @param queuesSwitchingTimes The times to switch from a queue to another
+     */
+    public UserMultiQueue(final QueueAssigner queueAssigner,
+                          final MaskBasePolicy<?, ?, ?, UserQueue> userWithdrawer,
+                          final List<? extends UserQueue> userQueues,
+                          final QueuesSwitchingTimes queuesSwitchingTimes) {
+
+        this(queueAssigner, userWithdrawer, userQueues);
+
+        setQueuesSwitchingTimes(queuesSwitchingTimes);
+    }
     
     // init methods
     
     private void init() {
+        previousQueue = -1;
+        nextQueue = null;
+
+        initQueueIndex();
+
         initStats();
     }
+
+    private void initQueueIndex() {
+        queueNumbers = new IdentityHashMap<UserQueue, Integer>();
+        queueLengths = new int[userQueues.size()];
+        occupiedQueues = new long[(userQueues.size() + 63) >>> 6];
+
+        for (int i = 0; i < userQueues.size(); i++) {
+            queueNumbers.put(userQueues.get(i), i);
+            queueLengths[i] = userQueues.get(i).getEnqueuedUsers();
+            updateOccupancy(i);
+        }
+
+        shortestQueues = new QueueLengthHeap(queueLengths, QueueLengthHeap.SHORTEST);
+        longestQueues = new QueueLengthHeap(queueLengths, QueueLengthHeap.LONGEST);
+        shortestNonEmptyQueues = new QueueLengthHeap(queueLengths, QueueLengthHeap.SHORTEST_NON_EMPTY);
+    }
     
     private void initStats() {
         setUsersEnqueued(0);        
@@ -88,32 +167,169 @@ public final class UserMultiQueue implements UserQueue {
     // core methods
     
     public User extract() {           
-        UserQueue userQueueToWithdraw = userWithdrawer.getDecisionFor(null); //For() getDecision(lastServed);
+        UserQueue userQueueToWithdraw = selectNextQueue();
+        nextQueue = null;
         
         usersEnqueued--;                
         
-        return userQueueToWithdraw.extract();         
+        User u = userQueueToWithdraw.extract();
+
+        updateQueueIndex(userQueueToWithdraw);
+
+        Integer q = queueNumbers.get(userQueueToWithdraw);
+        if (q != null) {
+            previousQueue = q;
+        }
+
+        return u;
+    }
+
+    /*
+     * removes the next user without serving it, hence the queue last served is unchanged
+     */
+    public User discard() {
+        UserQueue userQueueToWithdraw = selectNextQueue();
+        nextQueue = null;
+
+        usersEnqueued--;
+
+        User u = userQueueToWithdraw.discard();
+
+        updateQueueIndex(userQueueToWithdraw);
+
+        return u;
+    }
+
+    /*
+     * asks the withdrawer for the next queue, once per extraction, so that stateful
+     * withdrawers are not advanced twice by nextUserExtractingTime and extract
+     */
+    private UserQueue selectNextQueue() {
+        if (nextQueue == null) {
+            nextQueue = userWithdrawer.getDecisionFor(null);
+        }
+        return nextQueue;
     }
     
+    /*
+     * Returns the time to switch from the queue last served to the queue of the next
+     * user, plus the extracting time of that queue. The next queue is selected here
+     * and reused by the following extract.
+     */
     public Time nextUserExtractingTime() {               
-        // IMPORTANT NOTE:
-        // substitute the following return value with
-        // .fromTo(previousQueue, currentQueue) and add a pre cond at the function header
-        // (Switch Queue method must be invoke before the use of this
-        
-        //return queuesSwitchingTimes.fromTo(previousQueue, currentQueue);
-        return JEQNTimeFactory.makeFrom(Time.ZERO); //userWithdrawer.getSwitchingTime();
+        UserQueue uq = selectNextQueue();
+
+        Time t = uq.nextUserExtractingTime();
+
+        Integer q = queueNumbers.get(uq);
+        if ((queuesSwitchingTimes != null) && (previousQueue >= 0) && (q != null)) {
+            t = t.increasedBy(JEQNTimeFactory.makeFrom(queuesSwitchingTimes.fromTo(previousQueue, q)));
+        }
+
+        return t;
     }            
             
     public void insert(User u) throws JEQNQueueOverflowException {                
         usersEnqueued++;        
         usersPassedThrough++;
                 
-        System.out.flush();
-        queueAssigner.getUserQueue(u); //.insert(u);
         UserQueue uq = queueAssigner.getUserQueue(u);
         
         uq.insert(u);       
+
+        updateQueueIndex(uq);
+    }
+
+    public User offer(final User u) {
+        usersPassedThrough++;
+
+        UserQueue uq = queueAssigner.getUserQueue(u);
+
+        User dropped = uq.offer(u);
+        if (dropped == null) {
+            usersEnqueued++;
+        }
+
+        updateQueueIndex(uq);
+
+        return dropped;
+    }
+
+    /*
+     * updates the length index after the length of the given queue has changed
+     */
+    private void updateQueueIndex(final UserQueue uq) {
+        Integer q = queueNumbers.get(uq);
+
+        if (q != null) {
+            int previousLength = queueLengths[q];
+
+            queueLengths[q] = uq.getEnqueuedUsers();
+            updateOccupancy(q);
+
+            if ((idleQueueListener != null) && (previousLength > 0) && (queueLengths[q] == 0)) {
+                idleQueueListener.queueIdle(q);
+            }
+
+            shortestQueues.update(q);
+            longestQueues.update(q);
+            shortestNonEmptyQueues.update(q);
+        }
+    }
+
+    private void updateOccupancy(final int q) {
+        if (queueLengths[q] > 0) {
+            occupiedQueues[q >>> 6] |= (1L << q);
+        } else {
+            occupiedQueues[q >>> 6] &= ~(1L << q);
+        }
+    }
+
+    /**
+     * Gets the first non empty queue numbered from the given one upwards
+     * @param from The queue number the search starts from (inclusive)
+     * @return The queue number, or -1 if all the queues from {@code from} upwards are empty
+     */
+    public int nextNonEmptyQueue(final int from) {
+        if (from >= queueLengths.length) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = occupiedQueues[w] & (-1L << from);
+
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == occupiedQueues.length) {
+                return -1;
+            }
+            word = occupiedQueues[w];
+        }
+    }
+
+    /**
+     * Gets the first non empty queue numbered from the given one downwards
+     * @param from The queue number the search starts from (inclusive)
+     * @return The queue number, or -1 if all the queues from {@code from} downwards are empty
+     */
+    public int previousNonEmptyQueue(final int from) {
+        if (from < 0) {
+            return -1;
+        }
+        int start = Math.min(from, queueLengths.length - 1);
+        int w = start >>> 6;
+        long word = occupiedQueues[w] & (-1L >>> (63 - (start & 63)));
+
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (w-- == 0) {
+                return -1;
+            }
+            word = occupiedQueues[w];
+        }
     }
     
     public boolean isEmpty() {
@@ -151,7 +367,47 @@ public final class UserMultiQueue implements UserQueue {
      * @return The queue
      */
     public int getQueueNumber(final UserQueue q) {
-        return userQueues.indexOf(q);
+        Integer i = queueNumbers.get(q);
+
+        return (i == null) ? -1 : i;
+    }
+
+    /**
+     * Gets the length of a queue, as recorded by the length index
+     * @param i The queue number
+     * @return The number of users in the queue
+     */
+    public int getQueueLength(final int i) {
+        return queueLengths[i];
+    }
+
+    public void setIdleQueueListener(final IdleQueueListener l) {
+        idleQueueListener = l;
+    }
+
+    /**
+     * Gets the queue with the fewest users, the lowest numbered on ties
+     * @return The shortest queue
+     */
+    public UserQueue getShortestQueue() {
+        return userQueues.get(shortestQueues.top());
+    }
+
+    /**
+     * Gets the queue with the most users, the lowest numbered on ties
+     * @return The longest queue
+     */
+    public UserQueue getLongestQueue() {
+        return userQueues.get(longestQueues.top());
+    }
+
+    /**
+     * Gets the non empty queue with the fewest users, the lowest numbered on ties.
+     * If all the queues are empty, the first queue is returned
+     * @return The shortest non empty queue
+     */
+    public UserQueue getShortestNonEmptyQueue() {
+        return userQueues.get(shortestNonEmptyQueues.top());
     }                
 
     /**
@@ -166,7 +422,7 @@ public final class UserMultiQueue implements UserQueue {
      * Accessor method for the property
      * @return The number of queues making up the multi queue
      */
-    public Integer getNumberOfQueues() {
+    public int getNumberOfQueues() {
         return userQueues.size();
     }
     
@@ -232,11 +488,21 @@ public final class UserMultiQueue implements UserQueue {
         userWithdrawer = uw;
     }
     
-    /*
-    protected void setQueuesSwitchingTimes(final QueuesSwitchingTimes t) {
+    /**
+     * Accessor method for the property
+     * @return The times to switch from a queue to another, {@code null} if none
+     */
+    public QueuesSwitchingTimes getQueuesSwitchingTimes() {
+        return queuesSwitchingTimes;
+    }
+
+    /**
+     * Accessor method for the property
+     * @param t The times to switch from a queue to another, {@code null} if none
+     */
+    public void setQueuesSwitchingTimes(final QueuesSwitchingTimes t) {
         queuesSwitchingTimes = t;
     }
-    */
     
     private void setUsersEnqueued(final int i) {
         usersEnqueued = i;
@@ -248,5 +514,39 @@ public final class UserMultiQueue implements UserQueue {
     
     public int size() {        
         return usersEnqueued;
-    }    
+    }
+
+    public Object saveState() {
+        Object[] queueStates = new Object[userQueues.size()];
+        for (int i = 0; i < queueStates.length; i++) {
+            UserQueue q = userQueues.get(i);
+            if (!(q instanceof Checkpointable)) {
+                throw new UnsupportedOperationException("Cannot checkpoint a UserMultiQueue on a " + q.getClass().getName() + ", which is not Checkpointable");
+            }
+            queueStates[i] = ((Checkpointable) q).saveState();
+        }
+        Object withdrawerState = (userWithdrawer instanceof Checkpointable) ? ((Checkpointable) userWithdrawer).saveState() : null;
+        int next = (nextQueue == null) ? -1 : getQueueNumber(nextQueue);
+
+        return new Object[] {queueStates, withdrawerState, previousQueue, next, usersEnqueued, usersPassedThrough};
+    }
+
+    public void restoreState(final Object state) {
+        Object[] s = (Object[]) state;
+
+        Object[] queueStates = (Object[]) s[0];
+        for (int i = 0; i < queueStates.length; i++) {
+            ((Checkpointable) userQueues.get(i)).restoreState(queueStates[i]);
+        }
+        if (userWithdrawer instanceof Checkpointable) {
+            ((Checkpointable) userWithdrawer).restoreState(s[1]);
+        }
+        previousQueue = (Integer) s[2];
+        int next = (Integer) s[3];
+        nextQueue = (next < 0) ? null : userQueues.get(next);
+        usersEnqueued = (Integer) s[4];
+        usersPassedThrough = (Integer) s[5];
+
+        initQueueIndex();
+    }
 }
@@ -52,6 +52,25 @@ public interface UserQueue {
      * @throws it.uniroma2.info.sel.simlab.jeqn.exceptions.JEQNQueueOverflowException If the user queue cannot store the user
      */
     public void insert(User u) throws JEQNQueueOverflowException;    
+
+    /**
+     * Offers the given user to the user queue. Unlike {@code insert}, an overflow is
+     * reported through the return value instead of an exception, so that loss systems
+     * do not pay for the construction of an exception at each blocked user.
+     * @param u the user
+     * @return {@code null} if the user has been enqueued and no user has been dropped,
+     * {@code u} if the incoming user has been dropped, or the user that has been dropped
+     * to make room for {@code u}
+     */
+    public User offer(User u);
+
+    /**
+     * Removes the user that {@code extract} would return, without recording it as served,
+     * as when the user is dropped to make room for another one. The user is not accounted
+     * in the waiting time statistics
+     * @return the user removed
+     */
+    public User discard();
     
     /**
      * Says whether the queue is empty or not, that is if it contains at least one user
@@ -0,0 +1,172 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.times;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Implements constant switching times stored as a band around the diagonal: only the
+ * times from queue i to the queues i - lower to i + upper are kept, all the others
+ * being equal to a default time.
+ *
+ * @author  Daniele Gianni
+ * @see SwitchingTimesFile
+ */
+public class BandedSwitchingTimes implements QueuesSwitchingTimes {
+
+    private final int size;
+    private final int lower;
+    private final int upper;
+
+    // the time of the entries outside the band
+    private final double defaultTime;
+
+    // the band, row by row, lower + upper + 1 times per row
+    private final double[] band;
+
+    /**
+     * Creates a new instance of BandedSwitchingTimes with all the band times equal to the default time
+     * @param size The number of queues
+     * @param lower The number of diagonals stored below the main diagonal
+     * @param upper The number of diagonals stored above the main diagonal
+     * @param defaultTime The time of the entries outside the band
+     */
+    public BandedSwitchingTimes(final int size, final int lower, final int upper, final double defaultTime) {
+        this(size, lower, upper, defaultTime, new double[size * (lower + upper + 1)]);
+
+        Arrays.fill(band, defaultTime);
+    }
+
+    private BandedSwitchingTimes(final int size, final int lower, final int upper, final double defaultTime, final double[] band) {
+        this.size = size;
+        this.lower = lower;
+        this.upper = upper;
+        this.defaultTime = defaultTime;
+        this.band = band;
+    }
+
+    private boolean inBand(final int i, final int j) {
+        return (j >= i - lower) && (j <= i + upper);
+    }
+
+    public double fromTo(final int i, final int j) {
+        return inBand(i, j) ? band[i * (lower + upper + 1) + (j - i + lower)] : defaultTime;
+    }
+
+    /**
+     * Sets the switching time between queue i and queue j, that must lay in the band
+     * @param i The queue switched from
+     * @param j The queue switched to
+     * @param d The time
+     */
+    public void setTime(final int i, final int j, final double d) {
+        if (!inBand(i, j)) {
+            throw new IndexOutOfBoundsException("(" + i + ", " + j + ") is outside the band");
+        }
+        band[i * (lower + upper + 1) + (j - i + lower)] = d;
+    }
+
+    /*
+     * Return the queue j for which the switching time from queue i is max, the lowest on ties
+     */
+    public int maxFor(final int i) {
+        int first = Math.max(0, i - lower);
+        int last = Math.min(size - 1, i + upper);
+
+        int maxJ = (first > 0) ? 0 : first;
+        double max = fromTo(i, maxJ);
+
+        for (int j = first; j <= last; j++) {
+            if (fromTo(i, j) > max) {
+                max = fromTo(i, j);
+                maxJ = j;
+            }
+        }
+        if ((last < size - 1) && (defaultTime > max)) {
+            maxJ = last + 1;
+        }
+
+        return maxJ;
+    }
+
+    public double maxFrom(final int i) {
+        return fromTo(i, maxFor(i));
+    }
+
+    /*
+     * Return the queue j for which the switching time from queue i is min, the lowest on ties
+     */
+    public int minFor(final int i) {
+        int first = Math.max(0, i - lower);
+        int last = Math.min(size - 1, i + upper);
+
+        int minJ = (first > 0) ? 0 : first;
+        double min = fromTo(i, minJ);
+
+        for (int j = first; j <= last; j++) {
+            if (fromTo(i, j) < min) {
+                min = fromTo(i, j);
+                minJ = j;
+            }
+        }
+        if ((last < size - 1) && (defaultTime < min)) {
+            minJ = last + 1;
+        }
+
+        return minJ;
+    }
+
+    public double minFrom(final int i) {
+        return fromTo(i, minFor(i));
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /*
+     * Loads switching times from a banded little-endian binary file
+     */
+    public static BandedSwitchingTimes buildFromBinaryFile(final String s) {
+        try {
+            ByteBuffer b = SwitchingTimesFile.map(s);
+
+            int n = b.getInt(0);
+
+            b.position(SwitchingTimesFile.HEADER_SIZE);
+            double d = b.getDouble();
+            int lower = b.getInt();
+            int upper = b.getInt();
+
+            double[] band = new double[n * (lower + upper + 1)];
+            b.asDoubleBuffer().get(band);
+
+            return new BandedSwitchingTimes(n, lower, upper, d, band);
+        } catch (IOException e) {
+            System.err.println("Unable to build up Banded Switching Times Matrix from file " + s + " " + e);
+            return null;
+        }
+    }
+}
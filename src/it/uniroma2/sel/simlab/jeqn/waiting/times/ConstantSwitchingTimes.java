@@ -25,6 +25,8 @@ package it.uniroma2.sel.simlab.jeqn.waiting.times;
 import java.io.IOException;
 import java.io.FileInputStream;
 import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
 
 /**
  * Implements the switching times in the changing of the queue (in a multi-queue
@@ -146,6 +148,32 @@ public class ConstantSwitchingTimes implements QueuesSwitchingTimes {
         }
     }
     
+    /*
+     * Loads switching times from a dense little-endian binary file, mapped in memory
+     * and copied one row at a time
+     */
+    public static ConstantSwitchingTimes buildFromBinaryFile(final String s) {
+        try {
+            ByteBuffer b = SwitchingTimesFile.map(s);
+
+            int n = b.getInt(0);
+            int m = b.getInt(4);
+
+            b.position(SwitchingTimesFile.HEADER_SIZE);
+            DoubleBuffer d = b.asDoubleBuffer();
+
+            ConstantSwitchingTimes t = new ConstantSwitchingTimes(n, m);
+            for (int i = 0; i < n; i++) {
+                d.get(t.times[i]);
+            }
+
+            return t;
+        } catch (IOException e) {
+            System.err.println("Unable to build up Constant Switching Times Matrix from file " + s + " " + e);
+            return null;
+        }
+    }
+    
     public void setTime(final int i, final int j, final double d) {
         times[i][j] = d;
     }
@@ -0,0 +1,113 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.times;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Implements constant switching times read on demand from a dense binary file mapped
+ * in memory, so that large matrices are available without being copied on the heap.
+ *
+ * @author  Daniele Gianni
+ * @see SwitchingTimesFile
+ */
+public class MappedSwitchingTimes implements QueuesSwitchingTimes {
+
+    private final ByteBuffer buffer;
+    private final int rows;
+    private final int columns;
+
+    /**
+     * Creates a new instance of MappedSwitchingTimes
+     * @param buffer The little-endian dense content, header included
+     */
+    protected MappedSwitchingTimes(final ByteBuffer buffer) {
+        this.buffer = buffer;
+
+        rows = buffer.getInt(0);
+        columns = buffer.getInt(4);
+    }
+
+    public double fromTo(final int i, final int j) {
+        return buffer.getDouble(SwitchingTimesFile.HEADER_SIZE + (int) (((long) i * columns + j) << 3));
+    }
+
+    /*
+     * Return the queue j for which the switching time from queue i is max
+     */
+    public int maxFor(final int i) {
+        int maxJ = 0;
+
+        for (int j = 1; j < columns; j++) {
+            if (fromTo(i, j) > fromTo(i, maxJ)) {
+                maxJ = j;
+            }
+        }
+
+        return maxJ;
+    }
+
+    public double maxFrom(final int i) {
+        return fromTo(i, maxFor(i));
+    }
+
+    /*
+     * Return the queue j for which the switching time from queue i is min
+     */
+    public int minFor(final int i) {
+        int minJ = 0;
+
+        for (int j = 1; j < columns; j++) {
+            if (fromTo(i, j) < fromTo(i, minJ)) {
+                minJ = j;
+            }
+        }
+
+        return minJ;
+    }
+
+    public double minFrom(final int i) {
+        return fromTo(i, minFor(i));
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /*
+     * Maps switching times from a dense little-endian binary file
+     */
+    public static MappedSwitchingTimes buildFromBinaryFile(final String s) {
+        try {
+            return new MappedSwitchingTimes(SwitchingTimesFile.map(s));
+        } catch (IOException e) {
+            System.err.println("Unable to map Switching Times Matrix from file " + s + " " + e);
+            return null;
+        }
+    }
+}
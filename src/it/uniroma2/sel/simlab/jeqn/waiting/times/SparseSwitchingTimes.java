@@ -0,0 +1,166 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.times;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Implements constant switching times stored in compressed sparse row format: only
+ * the explicit times are kept, all the others being equal to a default time.
+ *
+ * @author  Daniele Gianni
+ * @see SwitchingTimesFile
+ */
+public class SparseSwitchingTimes implements QueuesSwitchingTimes {
+
+    private final int rows;
+    private final int columns;
+
+    // the time of the entries not explicitly stored
+    private final double defaultTime;
+
+    // the explicit entries of row i are at positions rowStarts[i] to rowStarts[i + 1] - 1
+    private final int[] rowStarts;
+    private final int[] columnIndexes;
+    private final double[] times;
+
+    /**
+     * Creates a new instance of SparseSwitchingTimes
+     * @param columns The number of columns
+     * @param defaultTime The time of the entries not explicitly stored
+     * @param rowStarts The offsets of the rows in the arrays below, rows + 1 values
+     * @param columnIndexes The column of each explicit entry, sorted within each row
+     * @param times The time of each explicit entry
+     */
+    public SparseSwitchingTimes(final int columns, final double defaultTime, final int[] rowStarts, final int[] columnIndexes, final double[] times) {
+        this.rows = rowStarts.length - 1;
+        this.columns = columns;
+        this.defaultTime = defaultTime;
+        this.rowStarts = rowStarts;
+        this.columnIndexes = columnIndexes;
+        this.times = times;
+    }
+
+    public double fromTo(final int i, final int j) {
+        int k = Arrays.binarySearch(columnIndexes, rowStarts[i], rowStarts[i + 1], j);
+
+        return (k >= 0) ? times[k] : defaultTime;
+    }
+
+    /*
+     * Returns the first column of row i that is not explicitly stored, -1 if none
+     */
+    private int firstDefaultColumn(final int i) {
+        int j = 0;
+
+        for (int k = rowStarts[i]; (k < rowStarts[i + 1]) && (columnIndexes[k] == j); k++) {
+            j++;
+        }
+
+        return (j < columns) ? j : -1;
+    }
+
+    /*
+     * Return the queue j for which the switching time from queue i is max, the lowest on ties
+     */
+    public int maxFor(final int i) {
+        int maxJ = firstDefaultColumn(i);
+        double max = (maxJ >= 0) ? defaultTime : Double.NEGATIVE_INFINITY;
+
+        for (int k = rowStarts[i]; k < rowStarts[i + 1]; k++) {
+            if ((times[k] > max) || ((times[k] == max) && (columnIndexes[k] < maxJ))) {
+                max = times[k];
+                maxJ = columnIndexes[k];
+            }
+        }
+
+        return maxJ;
+    }
+
+    public double maxFrom(final int i) {
+        return fromTo(i, maxFor(i));
+    }
+
+    /*
+     * Return the queue j for which the switching time from queue i is min, the lowest on ties
+     */
+    public int minFor(final int i) {
+        int minJ = firstDefaultColumn(i);
+        double min = (minJ >= 0) ? defaultTime : Double.POSITIVE_INFINITY;
+
+        for (int k = rowStarts[i]; k < rowStarts[i + 1]; k++) {
+            if ((times[k] < min) || ((times[k] == min) && (columnIndexes[k] < minJ))) {
+                min = times[k];
+                minJ = columnIndexes[k];
+            }
+        }
+
+        return minJ;
+    }
+
+    public double minFrom(final int i) {
+        return fromTo(i, minFor(i));
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /*
+     * Loads switching times from a sparse little-endian binary file
+     */
+    public static SparseSwitchingTimes buildFromBinaryFile(final String s) {
+        try {
+            ByteBuffer b = SwitchingTimesFile.map(s);
+
+            int n = b.getInt(0);
+            int m = b.getInt(4);
+
+            b.position(SwitchingTimesFile.HEADER_SIZE);
+            double d = b.getDouble();
+            int nnz = b.getInt();
+
+            int[] rowStarts = new int[n + 1];
+            b.asIntBuffer().get(rowStarts);
+            b.position(b.position() + ((n + 1) << 2));
+
+            int[] columnIndexes = new int[nnz];
+            b.asIntBuffer().get(columnIndexes);
+            b.position(b.position() + (nnz << 2));
+
+            double[] times = new double[nnz];
+            b.asDoubleBuffer().get(times);
+
+            return new SparseSwitchingTimes(m, d, rowStarts, columnIndexes, times);
+        } catch (IOException e) {
+            System.err.println("Unable to build up Sparse Switching Times Matrix from file " + s + " " + e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * 	Copyright (C) 2005-2011 Department of Enteprise Engineering, University of Rome "Tor Vergata"
+ *                              ( http://www.dii.uniroma2.it )
+ *
+ *      This file is part of jEQN and was developed at the Software Engineering Laboratory
+ *      ( http://www.sel.uniroma2.it )
+ *
+ *      jEQN is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      (at your option) any later version.
+ *
+ *      jEQN is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with jEQN.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package it.uniroma2.sel.simlab.jeqn.waiting.times;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Maps the binary switching time files in memory. All the files are little-endian,
+ * start with the number of rows and columns as two {@code int} values, and then
+ * carry a layout specific content:
+ * <ul>
+ *   <li>dense : rows * columns {@code double} values, row by row</li>
+ *   <li>sparse : the default time ({@code double}), the number of explicit times
+ *       nnz ({@code int}), rows + 1 row offsets ({@code int}), nnz column indexes
+ *       ({@code int}) sorted within each row, and nnz times ({@code double})</li>
+ *   <li>banded : the default time ({@code double}), the lower and upper bandwidths
+ *       ({@code int}), and rows * (lower + upper + 1) times ({@code double}), row by row
+ *       from column i - lower to column i + upper</li>
+ * </ul>
+ *
+ * @author  Daniele Gianni
+ */
+final class SwitchingTimesFile {
+
+    /**
+     * Size in bytes of the rows and columns header
+     */
+    static final int HEADER_SIZE = 8;
+
+    private SwitchingTimesFile() {
+    }
+
+    /**
+     * Maps the whole file read-only, in little-endian order. The mapping remains valid
+     * after the file has been closed.
+     * @param s The file name
+     * @return The mapped buffer
+     * @throws IOException If the file cannot be mapped
+     */
+    static MappedByteBuffer map(final String s) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(s, "r");
+
+        try {
+            FileChannel channel = file.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            return buffer;
+        } finally {
+            file.close();
+        }
+    }
+}